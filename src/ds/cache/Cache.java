@@ -0,0 +1,357 @@
+package ds.cache;
+
+import ds.hashtable.HashTableSeparateChaining;
+import ds.linkedlist.LinkedList;
+import ds.linkedlist.Node;
+
+// A bounded cache evicting entries once their total weight exceeds a maximum.
+// Every entry is a linked list node which the hash-table maps its key to, so
+// promoting and evicting entries only relinks nodes, in O(1) and without
+// allocating. Without a weigher every entry weighs 1 and the maximum weight is
+// the maximum number of entries.
+//
+// LRU: a single list in access order, the least recently used entry is evicted.
+//
+// LFU: one list per access count, capped at FrequencySketch.MAX_FREQUENCY. The
+// least recently used entry of the lowest count is evicted.
+//
+// W_TINY_LFU: new entries enter a small LRU window. Entries leaving the window
+// only replace the next victim of the main space if a FrequencySketch saw them
+// more often, which keeps one-off keys from flushing popular ones. The main space
+// is a segmented LRU, entries accessed again move from probation to protected.
+public class Cache<K, V> {
+
+    public enum Policy {
+        LRU, LFU, W_TINY_LFU
+    }
+
+    // Computes the weight of an entry
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    // The share of the maximum weight given to the W-TinyLFU window, and the
+    // share of the main space given to protected entries
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+
+    // The lists of the W-TinyLFU policy, LRU only uses the first one and LFU
+    // indexes its lists by access count
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    // A cached entry and its node in the list of its policy
+    private static final class Entry<K, V> extends Node<K> {
+
+        V mValue;
+        int mWeight;
+        int mList;
+
+        Entry(K key, V value, int weight, int list) {
+            super(key, null, null);
+            mValue = value;
+            mWeight = weight;
+            mList = list;
+        }
+
+    }
+
+    private final Policy mPolicy;
+    private final long mMaximumWeight;
+    private final Weigher<? super K, ? super V> mWeigher;
+
+    private final HashTableSeparateChaining<K, Entry<K, V>> mTable = new HashTableSeparateChaining<>();
+    private final LinkedList<K>[] mLists;
+    private final FrequencySketch mSketch;
+
+    private long mWeight;
+    private long mWindowWeight, mWindowMaximum;
+    private long mMainMaximum;
+    private long mProtectedWeight, mProtectedMaximum;
+
+    private long mHitCount, mMissCount, mEvictionCount;
+
+    public Cache(long maximumSize, Policy policy) {
+        this(maximumSize, policy, (key, value) -> 1);
+    }
+
+    public Cache(long maximumWeight, Policy policy, Weigher<? super K, ? super V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Illegal maximumWeight: " + maximumWeight);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Null policy");
+        }
+        if (weigher == null) {
+            throw new IllegalArgumentException("Null weigher");
+        }
+        mPolicy = policy;
+        mMaximumWeight = maximumWeight;
+        mWeigher = weigher;
+
+        int listCount = policy == Policy.LRU ? 1 : policy == Policy.LFU ? FrequencySketch.MAX_FREQUENCY + 1 : 3;
+        mLists = (LinkedList<K>[]) new LinkedList<?>[listCount];
+        for (int i = 0; i < listCount; i++) {
+            mLists[i] = new LinkedList<>();
+        }
+
+        if (policy == Policy.W_TINY_LFU) {
+            mWindowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_SHARE));
+            mMainMaximum = maximumWeight - mWindowMaximum;
+            mProtectedMaximum = (long) (mMainMaximum * PROTECTED_SHARE);
+            mSketch = new FrequencySketch(maximumWeight);
+        } else {
+            mSketch = null;
+        }
+    }
+
+    // Returns the number of entries in the cache
+    public int size() {
+        return mTable.size();
+    }
+
+    // Returns the total weight of the entries in the cache
+    public long weight() {
+        return mWeight;
+    }
+
+    public long maximumWeight() {
+        return mMaximumWeight;
+    }
+
+    public Policy policy() {
+        return mPolicy;
+    }
+
+    public long hitCount() {
+        return mHitCount;
+    }
+
+    public long missCount() {
+        return mMissCount;
+    }
+
+    public long evictionCount() {
+        return mEvictionCount;
+    }
+
+    // Returns the share of lookups which found their key, 0 before any lookup
+    public double hitRate() {
+        long lookups = mHitCount + mMissCount;
+        return lookups == 0 ? 0 : (double) mHitCount / lookups;
+    }
+
+    // Checks if the key is cached, without counting an access
+    public boolean contains(K key) {
+        return mTable.contains(key);
+    }
+
+    // Returns the cached value of the key and counts the access, or null
+    // if the key is not cached
+    public V get(K key) {
+        Entry<K, V> entry = mTable.get(key);
+        if (mSketch != null) {
+            mSketch.increment(key);
+        }
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        onAccess(entry);
+        return entry.mValue;
+    }
+
+    // Caches the value of a key and evicts entries until the weight fits, returns
+    // the previous value. An entry weighing more than the maximum is not cached.
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Null value");
+        }
+        int weight = mWeigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + weight);
+        }
+        if (mSketch != null) {
+            mSketch.increment(key);
+        }
+
+        Entry<K, V> entry = mTable.get(key);
+        if (weight > mMaximumWeight) {
+            if (entry != null) {
+                unlink(entry);
+                mTable.remove(key);
+            }
+            mEvictionCount++;
+            return entry == null ? null : entry.mValue;
+        }
+
+        V oldValue = null;
+        if (entry == null) {
+            entry = new Entry<>(key, value, weight, mPolicy == Policy.LFU ? 1 : WINDOW);
+            mTable.put(key, entry);
+            link(entry);
+        } else {
+            oldValue = entry.mValue;
+            unlink(entry);
+            entry.mValue = value;
+            entry.mWeight = weight;
+            link(entry);
+            onAccess(entry);
+        }
+        evict();
+        return oldValue;
+    }
+
+    // Removes a key from the cache and returns its value, or null if the key
+    // was not cached
+    public V remove(K key) {
+        Entry<K, V> entry = mTable.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.mValue;
+    }
+
+    // Removes every entry, the counters are kept
+    public void clear() {
+        mTable.clear();
+        for (LinkedList<K> list : mLists) {
+            list.clear();
+        }
+        mWeight = mWindowWeight = mProtectedWeight = 0;
+    }
+
+    // Promotes an entry which was accessed
+    private void onAccess(Entry<K, V> entry) {
+        if (mPolicy == Policy.LFU && entry.mList < FrequencySketch.MAX_FREQUENCY) {
+            unlink(entry);
+            entry.mList++;
+            link(entry);
+        } else if (entry.mList == PROBATION && mPolicy == Policy.W_TINY_LFU) {
+            unlink(entry);
+            entry.mList = PROTECTED;
+            link(entry);
+
+            // Make room in protected by demoting its least recently used entries
+            while (mProtectedWeight > mProtectedMaximum) {
+                Entry<K, V> demoted = first(PROTECTED);
+                unlink(demoted);
+                demoted.mList = PROBATION;
+                link(demoted);
+            }
+        } else {
+            mLists[entry.mList].moveToLast(entry);
+        }
+    }
+
+    // Evicts entries until the total weight fits the maximum
+    private void evict() {
+        if (mPolicy == Policy.W_TINY_LFU) {
+            admitFromWindow();
+        }
+        while (mWeight > mMaximumWeight) {
+            evict(victim());
+        }
+    }
+
+    // Moves the entries overflowing the window into the main space, each one either
+    // replaces the main space's victims or is evicted itself
+    private void admitFromWindow() {
+        while (mWindowWeight > mWindowMaximum) {
+            Entry<K, V> candidate = first(WINDOW);
+            unlink(candidate);
+            candidate.mList = PROBATION;
+
+            long mainWeight = mWeight - mWindowWeight;
+            if (mainWeight + candidate.mWeight <= mMainMaximum) {
+                link(candidate);
+                continue;
+            }
+
+            Entry<K, V> victim = mainVictim();
+            if (candidate.mWeight > mMainMaximum || victim == null
+                    || mSketch.frequency(candidate.mData) <= mSketch.frequency(victim.mData)) {
+                mTable.remove(candidate.mData);
+                mEvictionCount++;
+                continue;
+            }
+
+            link(candidate);
+            while (mWeight - mWindowWeight > mMainMaximum) {
+                evict(mainVictim());
+            }
+        }
+    }
+
+    // Returns the next entry to evict
+    private Entry<K, V> victim() {
+        if (mPolicy == Policy.LRU) {
+            return first(WINDOW);
+        }
+        if (mPolicy == Policy.LFU) {
+            for (int frequency = 1; ; frequency++) {
+                if (!mLists[frequency].isEmpty()) return first(frequency);
+            }
+        }
+        Entry<K, V> victim = mainVictim();
+        return victim != null ? victim : first(WINDOW);
+    }
+
+    // Returns the least recently used entry of the W-TinyLFU main space, or null
+    private Entry<K, V> mainVictim() {
+        Entry<K, V> victim = first(PROBATION);
+        return victim != null ? victim : first(PROTECTED);
+    }
+
+    private Entry<K, V> first(int list) {
+        return (Entry<K, V>) mLists[list].firstNode();
+    }
+
+    private void evict(Entry<K, V> entry) {
+        unlink(entry);
+        mTable.remove(entry.mData);
+        mEvictionCount++;
+    }
+
+    // Appends an entry to its list and adds its weight
+    private void link(Entry<K, V> entry) {
+        mLists[entry.mList].linkLast(entry);
+        mWeight += entry.mWeight;
+        if (mPolicy == Policy.W_TINY_LFU) {
+            if (entry.mList == WINDOW) mWindowWeight += entry.mWeight;
+            else if (entry.mList == PROTECTED) mProtectedWeight += entry.mWeight;
+        }
+    }
+
+    // Detaches an entry from its list and subtracts its weight
+    private void unlink(Entry<K, V> entry) {
+        mLists[entry.mList].unlink(entry);
+        mWeight -= entry.mWeight;
+        if (mPolicy == Policy.W_TINY_LFU) {
+            if (entry.mList == WINDOW) mWindowWeight -= entry.mWeight;
+            else if (entry.mList == PROTECTED) mProtectedWeight -= entry.mWeight;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{");
+        for (LinkedList<K> list : mLists) {
+            for (Node<K> node = list.firstNode(); node != null; node = node.mNext) {
+                sb.append(node.mData + " => " + ((Entry<K, V>) node).mValue + ", ");
+            }
+        }
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+}
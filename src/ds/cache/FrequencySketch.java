@@ -0,0 +1,90 @@
+package ds.cache;
+
+// A count-min sketch estimating how often keys were seen, used by the W-TinyLFU
+// policy to decide whether a new key is worth evicting an old one for. Each key
+// has a 4-bit counter in four rows, its frequency is the smallest of them. The
+// counters of all rows are packed 16 to a long. After a sample of 10 additions
+// per long all counters are halved, so the sketch follows changes in popularity.
+public class FrequencySketch {
+
+    // The largest value of a 4-bit counter
+    public static final int MAX_FREQUENCY = 15;
+
+    private static final int MAX_TABLE_SIZE = 1 << 20;
+    private static final int SAMPLES_PER_ENTRY = 10;
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+
+    private final long[] mTable;
+    private final int mTableMask;
+    private final int mSampleSize;
+    private int mAdditions;
+
+    public FrequencySketch(long maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Illegal maximumSize: " + maximumSize);
+        }
+        int size = (int) Math.min(maximumSize, MAX_TABLE_SIZE);
+        size = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        mTable = new long[size];
+        mTableMask = size - 1;
+        mSampleSize = SAMPLES_PER_ENTRY * size;
+    }
+
+    // Returns the estimated number of times the key was seen, at most MAX_FREQUENCY
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int shift = counterShift(hash, row);
+            frequency = Math.min(frequency, (int) ((mTable[indexOf(hash, row)] >>> shift) & 0xF));
+        }
+        return frequency;
+    }
+
+    // Counts one occurrence of the key
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hash, row);
+            int shift = counterShift(hash, row);
+            if (((mTable[index] >>> shift) & 0xF) != MAX_FREQUENCY) {
+                mTable[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++mAdditions == mSampleSize) {
+            reset();
+        }
+    }
+
+    // Halves every counter
+    private void reset() {
+        for (int i = 0; i < mTable.length; i++) {
+            mTable[i] = (mTable[i] >>> 1) & RESET_MASK;
+        }
+        mAdditions /= 2;
+    }
+
+    // Returns the long holding the counter of a row
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mTableMask;
+    }
+
+    // Returns the position of the counter of a row within its long
+    private static int counterShift(int hash, int row) {
+        return ((hash >>> (row << 3)) & 0xF) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -0,0 +1,354 @@
+package ds.cache;
+
+import ds.hashtable.ConcurrentHashTableSeparateChaining;
+import ds.linkedlist.LinkedList;
+import ds.linkedlist.Node;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A thread safe cache whose entries expire a fixed time after they were written.
+// Keys are spread over independent shards, each a ConcurrentHashTableSeparateChaining
+// with its own writer lock, so writers to different shards never contend and
+// readers never lock at all.
+//
+// Instead of a timer per entry, each shard files its entries into a hierarchical
+// timing wheel: levels of 64 buckets, every level's buckets spanning 64 times the
+// time of the level below. Advancing the wheel only visits the buckets whose time
+// has passed, expiring their entries and moving the others down to finer levels.
+// The wheel is advanced by writers, which hold the shard lock anyway, and by a
+// background sweeper. A get() of an expired entry returns null even before the
+// wheel reached it, and removes the entry if the shard lock is free.
+public class TtlCache<K, V> implements AutoCloseable {
+
+    // Reads the current time in nanoseconds
+    public interface Ticker {
+        long read();
+    }
+
+    private static final int DEFAULT_SHARD_COUNT = 16;
+    private static final long DEFAULT_SWEEP_MILLIS = 1000;
+
+    // The buckets per wheel level, and the nanosecond shift of the bucket span of
+    // each level: about 1ms, 67ms, 4.3s, 4.6min, 4.9h. Entries expiring beyond the
+    // top level are parked in its buckets and refiled until they are due.
+    private static final int WHEEL_BUCKETS = 64;
+    private static final int[] LEVEL_SHIFTS = {20, 26, 32, 38, 44};
+
+    // Keeps now + ttl from overflowing
+    private static final long MAX_TTL_NANOS = Long.MAX_VALUE >> 2;
+
+    // An entry and its node in a timing wheel bucket. The value and the expiry
+    // time are final so readers see them without locking.
+    private static final class Entry<K, V> extends Node<K> {
+
+        final V mValue;
+        final long mExpiresAt;
+
+        // The wheel bucket holding the entry, guarded by the shard lock
+        LinkedList<K> mBucket;
+
+        Entry(K key, V value, long expiresAt) {
+            super(key, null, null);
+            mValue = value;
+            mExpiresAt = expiresAt;
+        }
+
+    }
+
+    private final class Shard {
+
+        // Only written while holding mLock, which already serializes the writers
+        final ConcurrentHashTableSeparateChaining<K, Entry<K, V>> mTable =
+                new ConcurrentHashTableSeparateChaining<>(16, 0.75, 1);
+        final ReentrantLock mLock = new ReentrantLock();
+        final LinkedList<K>[][] mWheel = (LinkedList<K>[][]) new LinkedList<?>[LEVEL_SHIFTS.length][WHEEL_BUCKETS];
+        long mTime;
+
+        Shard(long time) {
+            mTime = time;
+            for (LinkedList<K>[] level : mWheel) {
+                for (int i = 0; i < WHEEL_BUCKETS; i++) {
+                    level[i] = new LinkedList<>();
+                }
+            }
+        }
+
+        // Files an entry into the bucket of the finest level whose span covers its expiry
+        void schedule(Entry<K, V> entry) {
+            long delay = entry.mExpiresAt - mTime;
+            int level = 0;
+            while (level < LEVEL_SHIFTS.length - 1 && delay >= (long) WHEEL_BUCKETS << LEVEL_SHIFTS[level]) {
+                level++;
+            }
+
+            // The bucket of the current tick was already visited, an entry due within
+            // it goes to the next bucket instead of waiting for a full turn
+            long ticks = Math.max(entry.mExpiresAt >> LEVEL_SHIFTS[level], (mTime >> LEVEL_SHIFTS[level]) + 1);
+            entry.mBucket = mWheel[level][(int) ticks & (WHEEL_BUCKETS - 1)];
+            entry.mBucket.linkLast(entry);
+        }
+
+        void unschedule(Entry<K, V> entry) {
+            entry.mBucket.unlink(entry);
+            entry.mBucket = null;
+        }
+
+        // Moves the wheel to the given time, visiting every bucket whose tick passed.
+        // A level only turns when the level below it completed a turn.
+        void advance(long now) {
+            long previous = mTime;
+            if (now - previous <= 0) {
+                return;
+            }
+            mTime = now;
+
+            for (int level = 0; level < LEVEL_SHIFTS.length; level++) {
+                long previousTicks = previous >> LEVEL_SHIFTS[level];
+                long ticks = (now >> LEVEL_SHIFTS[level]) - previousTicks;
+                if (ticks <= 0) {
+                    break;
+                }
+                int buckets = (int) Math.min(ticks, WHEEL_BUCKETS);
+                for (int i = 1; i <= buckets; i++) {
+                    expireBucket(mWheel[level][(int) (previousTicks + i) & (WHEEL_BUCKETS - 1)], now);
+                }
+            }
+        }
+
+        // Expires the due entries of a bucket and refiles the others. Refiled entries
+        // may land in the same bucket again, so only the current ones are visited.
+        private void expireBucket(LinkedList<K> bucket, long now) {
+            for (int count = bucket.size(); count > 0; count--) {
+                Entry<K, V> entry = (Entry<K, V>) bucket.firstNode();
+                unschedule(entry);
+                if (entry.mExpiresAt - now <= 0) {
+                    mTable.remove(entry.mData);
+                    mExpiredCount.increment();
+                } else {
+                    schedule(entry);
+                }
+            }
+        }
+
+    }
+
+    private final Shard[] mShards;
+    private final long mDefaultTtlNanos;
+    private final Ticker mTicker;
+    private final ScheduledExecutorService mSweeper;
+
+    private final LongAdder mHitCount = new LongAdder();
+    private final LongAdder mMissCount = new LongAdder();
+    private final LongAdder mExpiredCount = new LongAdder();
+
+    public TtlCache(long defaultTtl, TimeUnit unit) {
+        this(defaultTtl, unit, DEFAULT_SHARD_COUNT);
+    }
+
+    public TtlCache(long defaultTtl, TimeUnit unit, int shardCount) {
+        this(defaultTtl, unit, shardCount, DEFAULT_SWEEP_MILLIS, System::nanoTime);
+    }
+
+    // A sweepMillis of 0 disables the background sweeper, leaving expired
+    // entries to lookups and writers.
+    public TtlCache(long defaultTtl, TimeUnit unit, int shardCount, long sweepMillis, Ticker ticker) {
+        if (defaultTtl <= 0) {
+            throw new IllegalArgumentException("Illegal defaultTtl: " + defaultTtl);
+        }
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Illegal shardCount: " + shardCount);
+        }
+        if (sweepMillis < 0) {
+            throw new IllegalArgumentException("Illegal sweepMillis: " + sweepMillis);
+        }
+        if (unit == null || ticker == null) {
+            throw new IllegalArgumentException("Null argument");
+        }
+        mDefaultTtlNanos = Math.min(unit.toNanos(defaultTtl), MAX_TTL_NANOS);
+        mTicker = ticker;
+
+        int pow2 = Integer.highestOneBit(shardCount);
+        mShards = (Shard[]) new TtlCache<?, ?>.Shard[pow2 == shardCount ? pow2 : pow2 << 1];
+        long now = ticker.read();
+        for (int i = 0; i < mShards.length; i++) {
+            mShards[i] = new Shard(now);
+        }
+
+        if (sweepMillis > 0) {
+            mSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "TtlCache-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            mSweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        } else {
+            mSweeper = null;
+        }
+    }
+
+    // Returns the number of entries, including expired ones not removed yet
+    public int size() {
+        int size = 0;
+        for (Shard shard : mShards) {
+            size += shard.mTable.size();
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return mHitCount.sum();
+    }
+
+    public long missCount() {
+        return mMissCount.sum();
+    }
+
+    // Returns the number of entries removed because they expired
+    public long expiredCount() {
+        return mExpiredCount.sum();
+    }
+
+    // Returns the value of the key, or null if the key is missing or expired. Never
+    // blocks, an expired entry is only removed if its shard is not locked.
+    public V get(K key) {
+        Shard shard = shardOf(key);
+        Entry<K, V> entry = shard.mTable.get(key);
+        if (entry == null) {
+            mMissCount.increment();
+            return null;
+        }
+
+        long now = mTicker.read();
+        if (entry.mExpiresAt - now > 0) {
+            mHitCount.increment();
+            return entry.mValue;
+        }
+
+        mMissCount.increment();
+        if (shard.mLock.tryLock()) {
+            try {
+                // A writer may have replaced the entry since it was read
+                if (shard.mTable.get(key) == entry) {
+                    shard.mTable.remove(key);
+                    shard.unschedule(entry);
+                    mExpiredCount.increment();
+                }
+            } finally {
+                shard.mLock.unlock();
+            }
+        }
+        return null;
+    }
+
+    // Checks if the key has an entry which has not expired, never blocks
+    public boolean contains(K key) {
+        Entry<K, V> entry = shardOf(key).mTable.get(key);
+        return entry != null && entry.mExpiresAt - mTicker.read() > 0;
+    }
+
+    // Places a key-value pair expiring after the default time to live, returns
+    // the previous value if it had not expired
+    public V put(K key, V value) {
+        return put(key, value, mDefaultTtlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Places a key-value pair expiring after the given time to live, returns
+    // the previous value if it had not expired
+    public V put(K key, V value, long ttl, TimeUnit unit) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Null value");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Illegal ttl: " + ttl);
+        }
+
+        Shard shard = shardOf(key);
+        shard.mLock.lock();
+        try {
+            long now = mTicker.read();
+            shard.advance(now);
+
+            Entry<K, V> entry = new Entry<>(key, value, now + Math.min(unit.toNanos(ttl), MAX_TTL_NANOS));
+            Entry<K, V> oldEntry = shard.mTable.put(key, entry);
+            shard.schedule(entry);
+            if (oldEntry == null) {
+                return null;
+            }
+            shard.unschedule(oldEntry);
+            return oldEntry.mExpiresAt - now > 0 ? oldEntry.mValue : null;
+        } finally {
+            shard.mLock.unlock();
+        }
+    }
+
+    // Removes a key and returns its value if it had not expired
+    public V remove(K key) {
+        Shard shard = shardOf(key);
+        shard.mLock.lock();
+        try {
+            Entry<K, V> entry = shard.mTable.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            shard.unschedule(entry);
+            return entry.mExpiresAt - mTicker.read() > 0 ? entry.mValue : null;
+        } finally {
+            shard.mLock.unlock();
+        }
+    }
+
+    // Removes every entry
+    public void clear() {
+        for (Shard shard : mShards) {
+            shard.mLock.lock();
+            try {
+                shard.mTable.clear();
+                for (LinkedList<K>[] level : shard.mWheel) {
+                    for (LinkedList<K> bucket : level) {
+                        bucket.clear();
+                    }
+                }
+            } finally {
+                shard.mLock.unlock();
+            }
+        }
+    }
+
+    // Advances the timing wheels of all shards, skipping shards whose writers
+    // hold the lock since they advance the wheel themselves
+    public void sweep() {
+        for (Shard shard : mShards) {
+            if (shard.mLock.tryLock()) {
+                try {
+                    shard.advance(mTicker.read());
+                } finally {
+                    shard.mLock.unlock();
+                }
+            }
+        }
+    }
+
+    // Stops the background sweeper
+    @Override
+    public void close() {
+        if (mSweeper != null) {
+            mSweeper.shutdownNow();
+        }
+    }
+
+    private Shard shardOf(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+        int hash = key.hashCode() * 0x9E3779B9;
+        return mShards[(hash ^ (hash >>> 16)) & (mShards.length - 1)];
+    }
+
+}
@@ -0,0 +1,105 @@
+package ds.hashtable;
+
+// Measures HashTableSeparateChaining lookups when every key lands in the same
+// bucket. The colliding hashes are distinct multiples of 3 * 2^20, which all map
+// to bucket 0 for any capacity up to 3 * 2^20, so without treeified buckets every
+// lookup would walk a chain holding all the keys. The equal hash keys are strings
+// made of "Aa" and "BB" blocks, which all share one hashCode(), so the bucket tree
+// has to order them by the keys themselves.
+public class CollisionBenchmark {
+
+    private static final int COLLIDING_STRIDE = 3 << 20;
+    private static final int LOOKUPS = 1 << 20;
+
+    // The number of "Aa" or "BB" blocks of an equal hash key
+    private static final int BLOCKS = 16;
+
+    // A key with a chosen hash code
+    private static class Key {
+
+        private final int mValue;
+        private final int mHash;
+
+        Key(int value, int hash) {
+            mValue = value;
+            mHash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).mValue == mValue;
+        }
+
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %22s %22s %22s%n", "keys", "distributed (ns/get)", "colliding (ns/get)",
+                "equal hash (ns/get)");
+        for (int keyCount = 1 << 10; keyCount <= 1 << BLOCKS; keyCount <<= 1) {
+            double distributed = run(distributedKeys(keyCount));
+            double colliding = run(collidingKeys(keyCount));
+            double equalHash = run(equalHashKeys(keyCount));
+            System.out.printf("%-8d %22.1f %22.1f %22.1f%n", keyCount, distributed, colliding, equalHash);
+        }
+    }
+
+    private static Object[] distributedKeys(int keyCount) {
+        Object[] keys = new Object[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = new Key(i, i);
+        }
+        return keys;
+    }
+
+    private static Object[] collidingKeys(int keyCount) {
+        Object[] keys = new Object[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = new Key(i, i * COLLIDING_STRIDE);
+        }
+        return keys;
+    }
+
+    // "Aa" and "BB" have the same hashCode(), so do all strings of as many blocks
+    private static Object[] equalHashKeys(int keyCount) {
+        Object[] keys = new Object[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            StringBuilder sb = new StringBuilder(2 * BLOCKS);
+            for (int block = 0; block < BLOCKS; block++) {
+                sb.append((i >>> block & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = sb.toString();
+        }
+        return keys;
+    }
+
+    private static double run(Object[] keys) {
+        int keyCount = keys.length;
+        HashTableSeparateChaining<Object, Integer> table = new HashTableSeparateChaining<>();
+        for (int i = 0; i < keyCount; i++) {
+            table.put(keys[i], i);
+        }
+
+        // Warm up the JIT before measuring
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (table.get(keys[i % keyCount]) != null) found++;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (table.get(keys[(int) ((i * 7919L) % keyCount)]) != null) found++;
+        }
+        long time = System.nanoTime() - start;
+
+        if (found != 2 * LOOKUPS) {
+            throw new IllegalStateException("Missing keys");
+        }
+        return (double) time / LOOKUPS;
+    }
+
+}
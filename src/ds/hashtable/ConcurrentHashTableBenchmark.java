@@ -0,0 +1,128 @@
+package ds.hashtable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Measures the throughput of a globally synchronized HashTableSeparateChaining
+// against ConcurrentHashTableSeparateChaining while scaling the number of
+// reader and writer threads.
+public class ConcurrentHashTableBenchmark {
+
+    private static final int KEY_RANGE = 1 << 16;
+    private static final long DURATION_MILLIS = 1000;
+
+    private static final int[] READER_COUNTS = {1, 2, 4, 8};
+    private static final int[] WRITER_COUNTS = {0, 1, 2, 4};
+
+    // The operations shared by both tables
+    private interface Table {
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+
+        void remove(Integer key);
+    }
+
+    private static class SynchronizedTable implements Table {
+
+        private final HashTableSeparateChaining<Integer, Integer> mTable = new HashTableSeparateChaining<>();
+
+        @Override
+        public synchronized Integer get(Integer key) {
+            return mTable.get(key);
+        }
+
+        @Override
+        public synchronized void put(Integer key, Integer value) {
+            mTable.put(key, value);
+        }
+
+        @Override
+        public synchronized void remove(Integer key) {
+            mTable.remove(key);
+        }
+
+    }
+
+    private static class ConcurrentTable implements Table {
+
+        private final ConcurrentHashTableSeparateChaining<Integer, Integer> mTable = new ConcurrentHashTableSeparateChaining<>();
+
+        @Override
+        public Integer get(Integer key) {
+            return mTable.get(key);
+        }
+
+        @Override
+        public void put(Integer key, Integer value) {
+            mTable.put(key, value);
+        }
+
+        @Override
+        public void remove(Integer key) {
+            mTable.remove(key);
+        }
+
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-8s %-8s %22s %22s%n", "readers", "writers", "synchronized (ops/ms)", "concurrent (ops/ms)");
+        for (int readers : READER_COUNTS) {
+            for (int writers : WRITER_COUNTS) {
+                long synchronizedOps = run(new SynchronizedTable(), readers, writers);
+                long concurrentOps = run(new ConcurrentTable(), readers, writers);
+                System.out.printf("%-8d %-8d %22d %22d%n", readers, writers,
+                        synchronizedOps / DURATION_MILLIS, concurrentOps / DURATION_MILLIS);
+            }
+        }
+    }
+
+    // Runs the readers and writers against the table and returns the total operation count
+    private static long run(Table table, int readers, int writers) throws InterruptedException {
+        for (int i = 0; i < KEY_RANGE; i += 2) {
+            table.put(i, i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[readers + writers];
+
+        for (int t = 0; t < threads.length; t++) {
+            final boolean writer = t >= readers;
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    Integer key = random.nextInt(KEY_RANGE);
+                    if (!writer) {
+                        table.get(key);
+                    } else if (random.nextBoolean()) {
+                        table.put(key, key);
+                    } else {
+                        table.remove(key);
+                    }
+                    count++;
+                }
+                operations.add(count);
+            });
+            threads[t].start();
+        }
+
+        start.countDown();
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operations.sum();
+    }
+
+}
@@ -0,0 +1,551 @@
+package ds.hashtable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// A non-blocking version of HashTableOpenAddressing. Keys and values live in atomic
+// slot arrays and every update is a compare-and-set on a single slot, so no thread
+// ever waits for another one. A key slot, once claimed, belongs to its key forever,
+// deleting a key only stores a TOMBSTONE in its value slot. Resizing copies the
+// table into a new one slot by slot, every slot is first frozen so no update can
+// get lost while it is being moved, and each thread helps copying as it goes.
+//
+// The probing is defined the same way as in HashTableOpenAddressing, except that
+// setupProbing() returns its state instead of caching it in a field, since many
+// threads probe at the same time.
+public abstract class ConcurrentHashTableOpenAddressing<K, V> implements Iterable<K> {
+
+    private static final int DEFAULT_CAPACITY = 7;
+    private static final double DEFAULT_LOAD_FACTOR = 0.65;
+
+    // The number of slots a thread copies to the new table per operation while resizing
+    private static final int COPY_CHUNK = 16;
+
+    // Marks a free key slot which was sealed by a resize, the key it would have
+    // received is looked up in the next table instead.
+    private static final Object KEY_MOVED = new Object();
+
+    // Value slot markers for a deleted key and for a slot copied to the next table
+    private static final Object TOMBSTONE = new Object();
+    private static final Object MOVED = new Object();
+
+    // Wraps the value of a slot being copied to the next table, the slot
+    // can no longer change until it's marked as MOVED.
+    private static class Frozen {
+
+        final Object value;
+
+        Frozen(Object value) {
+            this.value = value;
+        }
+
+    }
+
+    private static class Table {
+
+        final int capacity;
+        final int threshold;
+        final AtomicReferenceArray<Object> keys;
+        final AtomicReferenceArray<Object> values;
+
+        // The number of claimed or sealed key slots
+        final AtomicInteger usedSlots = new AtomicInteger();
+
+        // The table the slots are being copied to, null if no resize is in progress
+        final AtomicReference<Table> next = new AtomicReference<>();
+
+        // The next slot to be claimed for copying and the number of slots copied
+        final AtomicInteger copyIndex = new AtomicInteger();
+        final AtomicInteger copied = new AtomicInteger();
+
+        Table(int capacity, double loadFactor) {
+            this.capacity = capacity;
+            this.threshold = (int) (capacity * loadFactor);
+            keys = new AtomicReferenceArray<>(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+        }
+
+    }
+
+    protected final double mLoadFactor;
+    private final AtomicReference<Table> mTable = new AtomicReference<>();
+    private final LongAdder mKeyCount = new LongAdder();
+
+    protected ConcurrentHashTableOpenAddressing() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    protected ConcurrentHashTableOpenAddressing(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    protected ConcurrentHashTableOpenAddressing(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal loadFactor: " + loadFactor);
+        }
+        mLoadFactor = loadFactor;
+        mTable.set(new Table(adjustCapacity(Math.max(DEFAULT_CAPACITY, capacity)), loadFactor));
+    }
+
+    // These three methods are used to dictate how the probing is to actually
+    // occur, the probing of a table must visit all of its slots. setupProbing()
+    // returns a state for the key which is passed to every probe() call.
+    protected abstract int setupProbing(K key, int capacity);
+
+    protected abstract long probe(int state, int x);
+
+    // Returns the capacity adjusted so that the probing can visit all slots
+    protected abstract int adjustCapacity(int capacity);
+
+    // Return the size of the hash-table
+    public int size() {
+        return (int) mKeyCount.sum();
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Removes every key, each removal is atomic on its own
+    public void clear() {
+        for (K key : keys()) {
+            remove(key);
+        }
+    }
+
+    // Check is element contained in the hash-table
+    public boolean contains(K key) {
+        return get(key) != null;
+    }
+
+    // Get the value associated with the input key.
+    // NOTE: returns null if the key does not exist
+    public V get(K key) {
+        if (key == null) throw new IllegalArgumentException("Null key");
+        return get(mTable.get(), key);
+    }
+
+    // Place a key-value pair into the hash-table. If the value already
+    // exists inside the hash-table then the value is updated
+    public V put(K key, V value) {
+        if (key == null) throw new IllegalArgumentException("Null key");
+        if (value == null) throw new IllegalArgumentException("Null value");
+        return update(mTable.get(), key, value);
+    }
+
+    // Removes a key from the map and returns the value.
+    // NOTE: returns null if the key does not exist
+    public V remove(K key) {
+        if (key == null) throw new IllegalArgumentException("Null key");
+        return update(mTable.get(), key, TOMBSTONE);
+    }
+
+    private V get(Table table, K key) {
+        while (true) {
+            int state = setupProbing(key, table.capacity);
+            int offset = ProbingRules.normalizeIndex(key.hashCode(), table.capacity);
+
+            Table next = null;
+            for (int x = 0; x < table.capacity && next == null; x++) {
+                int i = ProbingRules.slot(offset, probe(state, x), table.capacity);
+                Object slotKey = table.keys.get(i);
+
+                // A free slot means the key was never placed in this table. Any
+                // write to the key in a next table would have sealed it first.
+                if (slotKey == null) {
+                    return null;
+                }
+                if (slotKey == KEY_MOVED) {
+                    next = table.next.get();
+                } else if (slotKey.equals(key)) {
+                    Object value = table.values.get(i);
+                    if (value == TOMBSTONE) {
+                        return null;
+                    }
+                    if (value instanceof Frozen || value == MOVED) {
+                        copySlot(table, i);
+                        next = table.next.get();
+                    } else {
+                        return (V) value;
+                    }
+                }
+            }
+
+            // The key might have been placed in the next table
+            if (next == null && (next = table.next.get()) == null) {
+                return null;
+            }
+            table = next;
+        }
+    }
+
+    // Sets the value of a key, or removes the key if the new value is the
+    // TOMBSTONE. Returns the previous value or null if there was none.
+    private V update(Table table, K key, Object newValue) {
+        while (true) {
+            int index = claimSlot(table, key, newValue != TOMBSTONE);
+
+            if (index >= 0) {
+                while (true) {
+                    Object value = table.values.get(index);
+
+                    // Never write into a table being resized, copy the slot
+                    // and then continue the update in the next table.
+                    if (value instanceof Frozen || value == MOVED || table.next.get() != null) {
+                        copySlot(table, index);
+                        break;
+                    }
+
+                    boolean existed = value != null && value != TOMBSTONE;
+                    if (!existed && newValue == TOMBSTONE) {
+                        return null;
+                    }
+                    if (table.values.compareAndSet(index, value, newValue)) {
+                        if (!existed) {
+                            mKeyCount.increment();
+                        } else if (newValue == TOMBSTONE) {
+                            mKeyCount.decrement();
+                        }
+                        return existed ? (V) value : null;
+                    }
+                }
+            } else if (index == -1) {
+                // The key does not exist, there is nothing to remove
+                return null;
+            }
+
+            helpCopy(table);
+            table = table.next.get();
+        }
+    }
+
+    // Returns the slot of the key in the table, claiming a free slot for it when
+    // requested. Returns -1 when the key does not exist and no slot should be
+    // claimed, and -2 when the key has to be looked up in the next table.
+    private int claimSlot(Table table, K key, boolean claim) {
+        int state = setupProbing(key, table.capacity);
+        int offset = ProbingRules.normalizeIndex(key.hashCode(), table.capacity);
+
+        for (int x = 0; x < table.capacity; x++) {
+            int i = ProbingRules.slot(offset, probe(state, x), table.capacity);
+            Object slotKey = table.keys.get(i);
+
+            while (slotKey == null) {
+                if (!claim) {
+                    return -1;
+                }
+
+                // Once a resize started no new key enters this table, the free slot
+                // is sealed instead so no slower thread can place the key here.
+                if (table.next.get() != null) {
+                    if (table.keys.compareAndSet(i, null, KEY_MOVED)) {
+                        table.usedSlots.incrementAndGet();
+                        onSlotCopied(table);
+                        return -2;
+                    }
+                } else if (table.keys.compareAndSet(i, null, key)) {
+                    if (table.usedSlots.incrementAndGet() >= table.threshold) {
+                        startResize(table);
+                    }
+                    return i;
+                }
+                slotKey = table.keys.get(i);
+            }
+
+            if (slotKey == KEY_MOVED) {
+                return -2;
+            }
+            if (slotKey.equals(key)) {
+                return i;
+            }
+        }
+
+        // Every slot was probed, the table is full
+        startResize(table);
+        return -2;
+    }
+
+    // Attaches a next table unless a resize is already in progress. The next table
+    // only doubles when live keys fill most of the table, otherwise the same
+    // capacity is used and the copy just drops the deleted keys.
+    private void startResize(Table table) {
+        if (table.next.get() != null) {
+            return;
+        }
+        int capacity = table.capacity;
+        if (size() >= table.threshold / 2) {
+            capacity = 2 * capacity + 1;
+        }
+        table.next.compareAndSet(null, new Table(adjustCapacity(capacity), mLoadFactor));
+    }
+
+    // Copies the next chunk of slots of a table being resized
+    private void helpCopy(Table table) {
+        int start = table.copyIndex.getAndAdd(COPY_CHUNK);
+        int end = Math.min(start + COPY_CHUNK, table.capacity);
+        for (int i = start; i < end; i++) {
+            copySlot(table, i);
+        }
+    }
+
+    // Moves a slot to the next table. Safe to be called by many threads at once,
+    // it returns once the slot is sealed or its value is marked as MOVED.
+    private void copySlot(Table table, int index) {
+        Object key = table.keys.get(index);
+        while (key == null) {
+            if (table.keys.compareAndSet(index, null, KEY_MOVED)) {
+                table.usedSlots.incrementAndGet();
+                onSlotCopied(table);
+                return;
+            }
+            key = table.keys.get(index);
+        }
+        if (key == KEY_MOVED) {
+            return;
+        }
+
+        while (true) {
+            Object value = table.values.get(index);
+            if (value == MOVED) {
+                return;
+            }
+
+            if (value instanceof Frozen) {
+                // Only fills the slot of the next table if it's still empty, so
+                // repeated copies never overwrite a later update of the key.
+                copyValue(table.next.get(), (K) key, ((Frozen) value).value);
+                if (table.values.compareAndSet(index, value, MOVED)) {
+                    onSlotCopied(table);
+                }
+                return;
+            }
+
+            if (value == null || value == TOMBSTONE) {
+                // Nothing to copy
+                if (table.values.compareAndSet(index, value, MOVED)) {
+                    onSlotCopied(table);
+                    return;
+                }
+            } else {
+                table.values.compareAndSet(index, value, new Frozen(value));
+            }
+        }
+    }
+
+    // Places a copied value in a table, unless the key already has a value there
+    private void copyValue(Table table, K key, Object value) {
+        while (true) {
+            int index = claimSlot(table, key, true);
+            if (index >= 0) {
+                Object current = table.values.get(index);
+                if (current == null && table.values.compareAndSet(index, null, value)) {
+                    return;
+                }
+                current = table.values.get(index);
+                if (!(current instanceof Frozen) && current != MOVED) {
+                    return;
+                }
+                copySlot(table, index);
+            }
+            table = table.next.get();
+        }
+    }
+
+    // Promotes the next table once every slot of the current one was copied
+    private void onSlotCopied(Table table) {
+        table.copied.incrementAndGet();
+
+        Table current = mTable.get();
+        while (current.copied.get() == current.capacity) {
+            mTable.compareAndSet(current, current.next.get());
+            current = mTable.get();
+        }
+    }
+
+    // Returns the key-value pairs of the current table. Pending copies are finished
+    // first so that no key is left behind in an older table.
+    private List<Object[]> entries() {
+        Table table = mTable.get();
+        while (table.next.get() != null) {
+            for (int i = 0; i < table.capacity; i++) {
+                copySlot(table, i);
+            }
+            table = table.next.get();
+        }
+
+        List<Object[]> entries = new ArrayList<>(size());
+        for (int i = 0; i < table.capacity; i++) {
+            Object key = table.keys.get(i);
+            Object value = table.values.get(i);
+            if (key == null || key == KEY_MOVED || value == null || value == TOMBSTONE) {
+                continue;
+            }
+            if (value instanceof Frozen) {
+                value = ((Frozen) value).value;
+            } else if (value == MOVED) {
+                value = get((K) key);
+                if (value == null) continue;
+            }
+            entries.add(new Object[]{key, value});
+        }
+        return entries;
+    }
+
+    // Returns a list of keys found in the hash table
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>(size());
+        for (Object[] entry : entries()) {
+            keys.add((K) entry[0]);
+        }
+        return keys;
+    }
+
+    // Returns a list of non-unique values found in the hash table
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (Object[] entry : entries()) {
+            values.add((V) entry[1]);
+        }
+        return values;
+    }
+
+    // The iterator works on a snapshot of the keys, it never throws a
+    // ConcurrentModificationException and ignores later modifications.
+    @Override
+    public Iterator<K> iterator() {
+        final Iterator<K> iterator = keys().iterator();
+        return new Iterator<K>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public K next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (Object[] entry : entries()) {
+            sb.append(entry[0] + " => " + entry[1] + ", ");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    public static class LinearProbing<K, V> extends ConcurrentHashTableOpenAddressing<K, V> {
+
+        public LinearProbing() {
+            super();
+        }
+
+        public LinearProbing(int capacity) {
+            super(capacity);
+        }
+
+        public LinearProbing(int capacity, double loadFactor) {
+            super(capacity, loadFactor);
+        }
+
+        @Override
+        protected int setupProbing(K key, int capacity) {
+            return 0;
+        }
+
+        @Override
+        protected long probe(int state, int x) {
+            return ProbingRules.linearProbe(x);
+        }
+
+        @Override
+        protected int adjustCapacity(int capacity) {
+            return ProbingRules.linearCapacity(capacity);
+        }
+
+    }
+
+    public static class QuadraticProbing<K, V> extends ConcurrentHashTableOpenAddressing<K, V> {
+
+        public QuadraticProbing() {
+            super();
+        }
+
+        public QuadraticProbing(int capacity) {
+            super(capacity);
+        }
+
+        public QuadraticProbing(int capacity, double loadFactor) {
+            super(capacity, loadFactor);
+        }
+
+        @Override
+        protected int setupProbing(K key, int capacity) {
+            return 0;
+        }
+
+        @Override
+        protected long probe(int state, int x) {
+            return ProbingRules.quadraticProbe(x);
+        }
+
+        @Override
+        protected int adjustCapacity(int capacity) {
+            return ProbingRules.quadraticCapacity(capacity);
+        }
+
+    }
+
+    public static class DoubleHashing<K extends HashTableDoubleHashing.SecondaryHash, V>
+            extends ConcurrentHashTableOpenAddressing<K, V> {
+
+        public DoubleHashing() {
+            super();
+        }
+
+        public DoubleHashing(int capacity) {
+            super(capacity);
+        }
+
+        public DoubleHashing(int capacity, double loadFactor) {
+            super(capacity, loadFactor);
+        }
+
+        @Override
+        protected int setupProbing(K key, int capacity) {
+            return ProbingRules.doubleHashingState(key.hashCode2(), capacity);
+        }
+
+        @Override
+        protected long probe(int state, int x) {
+            return ProbingRules.doubleHashingProbe(state, x);
+        }
+
+        @Override
+        protected int adjustCapacity(int capacity) {
+            return ProbingRules.doubleHashingCapacity(capacity);
+        }
+
+    }
+
+}
@@ -0,0 +1,428 @@
+package ds.hashtable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A thread safe version of HashTableSeparateChaining. Writers lock only the stripe
+// owning the bucket of their key, while get() and contains() never lock and read
+// the chains through volatile references. When the table grows, buckets are moved
+// to the new table a few at a time by the writers themselves, so no single call
+// pays for rehashing the whole table.
+public class ConcurrentHashTableSeparateChaining<K, V> implements Iterable<K> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    // The number of buckets a writer moves to the new table per call while resizing
+    private static final int TRANSFER_STRIDE = 16;
+
+    private static class Node<K, V> {
+
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+    }
+
+    // Placed in a bucket of the old table once its entries were moved, it
+    // redirects readers and writers to the table which now holds them.
+    private static class ForwardingNode<K, V> extends Node<K, V> {
+
+        final Table<K, V> nextTable;
+
+        ForwardingNode(Table<K, V> nextTable) {
+            super(-1, null, null, null);
+            this.nextTable = nextTable;
+        }
+
+    }
+
+    private static class Table<K, V> {
+
+        final AtomicReferenceArray<Node<K, V>> buckets;
+        final int threshold;
+
+        // The table the buckets are being moved to, null if no resize is in progress
+        final AtomicReference<Table<K, V>> next = new AtomicReference<>();
+
+        // The next bucket to be claimed for moving and the number of buckets moved
+        final AtomicInteger transferIndex = new AtomicInteger();
+        final AtomicInteger transferred = new AtomicInteger();
+
+        Table(int capacity, double loadFactor) {
+            buckets = new AtomicReferenceArray<>(capacity);
+            threshold = (int) (capacity * loadFactor);
+        }
+
+        int capacity() {
+            return buckets.length();
+        }
+
+    }
+
+    private final double mMaxLoadFactor;
+    private final AtomicReference<Table<K, V>> mTable = new AtomicReference<>();
+
+    // The locks guarding the buckets. The capacity and the number of locks are powers
+    // of two and the capacity is never smaller, so a bucket and the two buckets it
+    // splits into when the table doubles are always guarded by the same lock.
+    private final ReentrantLock[] mLocks;
+
+    private final LongAdder mSize = new LongAdder();
+
+    public ConcurrentHashTableSeparateChaining() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentHashTableSeparateChaining(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentHashTableSeparateChaining(int capacity, double maxLoadFactor) {
+        this(capacity, maxLoadFactor, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentHashTableSeparateChaining(int capacity, double maxLoadFactor, int concurrencyLevel) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity");
+        }
+        if (maxLoadFactor <= 0 || Double.isNaN(maxLoadFactor) || Double.isInfinite(maxLoadFactor)) {
+            throw new IllegalArgumentException("Illegal maxLoadFactor");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Illegal concurrencyLevel");
+        }
+        mMaxLoadFactor = maxLoadFactor;
+
+        mLocks = new ReentrantLock[ceilPowerOfTwo(concurrencyLevel)];
+        for (int i = 0; i < mLocks.length; i++) {
+            mLocks[i] = new ReentrantLock();
+        }
+
+        int tableCapacity = ceilPowerOfTwo(Math.max(Math.max(DEFAULT_CAPACITY, capacity), mLocks.length));
+        mTable.set(new Table<>(tableCapacity, maxLoadFactor));
+    }
+
+    // Returns the smallest power of two greater than or equal to n
+    private static int ceilPowerOfTwo(int n) {
+        int pow2 = Integer.highestOneBit(n);
+        return pow2 == n ? n : pow2 << 1;
+    }
+
+    // Return the size of the hash-table
+    public int size() {
+        return (int) mSize.sum();
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Clear everything in the hash-table. All the locks are held so no writer
+    // can be in the middle of an update while the table is replaced.
+    public void clear() {
+        for (ReentrantLock lock : mLocks) {
+            lock.lock();
+        }
+        try {
+            mTable.set(new Table<>(mTable.get().capacity(), mMaxLoadFactor));
+            mSize.reset();
+        } finally {
+            for (ReentrantLock lock : mLocks) {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Check is element contained in the hash-table, never blocks
+    public boolean contains(K key) {
+        return getNode(key) != null;
+    }
+
+    // Gets a key's values from the map and returns the value, never blocks.
+    // NOTE: returns null if the key does not exist
+    public V get(K key) {
+        Node<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    // Place a value in the hash-table
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+        int hash = spread(key.hashCode());
+        V oldValue = null;
+        boolean added = false;
+
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Table<K, V> table = tableFor(mTable.get(), hash);
+            int index = hash & (table.capacity() - 1);
+            Node<K, V> head = table.buckets.get(index);
+
+            Node<K, V> node = head;
+            while (node != null && !(node.hash == hash && node.key.equals(key))) {
+                node = node.next;
+            }
+
+            if (node != null) {
+                oldValue = node.value;
+                node.value = value;
+            } else {
+                // Publishing the new head through the array makes the fully
+                // constructed node visible to readers.
+                table.buckets.set(index, new Node<>(hash, key, value, head));
+                mSize.increment();
+                added = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (added) {
+            startResizeIfNeeded();
+        }
+        helpTransfer();
+        return oldValue;
+    }
+
+    // Removes a key from the map and returns the value
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = spread(key.hashCode());
+        V oldValue = null;
+
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Table<K, V> table = tableFor(mTable.get(), hash);
+            int index = hash & (table.capacity() - 1);
+
+            Node<K, V> prev = null;
+            Node<K, V> node = table.buckets.get(index);
+            while (node != null && !(node.hash == hash && node.key.equals(key))) {
+                prev = node;
+                node = node.next;
+            }
+
+            // Unlinking leaves the removed node pointing into the chain,
+            // so a reader currently standing on it can still move on.
+            if (node != null) {
+                if (prev == null) {
+                    table.buckets.set(index, node.next);
+                } else {
+                    prev.next = node.next;
+                }
+                mSize.decrement();
+                oldValue = node.value;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        helpTransfer();
+        return oldValue;
+    }
+
+    // Mixes the high bits of the hash into the low bits used for
+    // indexing, and strips the sign bit used by forwarding nodes.
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & 0x7FFFFFFF;
+    }
+
+    private ReentrantLock lockFor(int hash) {
+        return mLocks[hash & (mLocks.length - 1)];
+    }
+
+    // Follows the forwarding nodes of moved buckets to the table which
+    // currently holds the bucket of the given hash.
+    private static <K, V> Table<K, V> tableFor(Table<K, V> table, int hash) {
+        Node<K, V> head = table.buckets.get(hash & (table.capacity() - 1));
+        while (head instanceof ForwardingNode) {
+            table = ((ForwardingNode<K, V>) head).nextTable;
+            head = table.buckets.get(hash & (table.capacity() - 1));
+        }
+        return table;
+    }
+
+    // Lock free lookup of the node holding the key, returns null if it does not exist
+    private Node<K, V> getNode(K key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = spread(key.hashCode());
+        Table<K, V> table = tableFor(mTable.get(), hash);
+        Node<K, V> node = table.buckets.get(hash & (table.capacity() - 1));
+
+        // The bucket may have been moved since, in which case its old
+        // chain is left intact and still holds every key it had.
+        if (node instanceof ForwardingNode) {
+            return getNode(key);
+        }
+        while (node != null && !(node.hash == hash && node.key.equals(key))) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    // Starts moving the buckets to a table twice as large once the threshold
+    // is exceeded. Only one resize can be in progress at a time.
+    private void startResizeIfNeeded() {
+        Table<K, V> table = mTable.get();
+        if (mSize.sum() > table.threshold && table.next.get() == null) {
+            table.next.compareAndSet(null, new Table<>(table.capacity() * 2, mMaxLoadFactor));
+        }
+    }
+
+    // Moves the next few buckets of an in progress resize. The writer moving
+    // the last bucket makes the new table the current one.
+    private void helpTransfer() {
+        Table<K, V> table = mTable.get();
+        Table<K, V> nextTable = table.next.get();
+        if (nextTable == null) {
+            return;
+        }
+
+        int capacity = table.capacity();
+        int start = table.transferIndex.getAndAdd(TRANSFER_STRIDE);
+        if (start >= capacity) {
+            return;
+        }
+
+        int end = Math.min(start + TRANSFER_STRIDE, capacity);
+        for (int i = start; i < end; i++) {
+            transferBucket(table, nextTable, i);
+        }
+
+        // The table may have been replaced by clear() in the meantime, in
+        // which case the moved buckets are simply dropped.
+        if (table.transferred.addAndGet(end - start) == capacity) {
+            mTable.compareAndSet(table, nextTable);
+        }
+    }
+
+    // Splits a bucket into the two buckets it maps to in the table twice as
+    // large. New nodes are created so the old chain stays valid for readers.
+    private void transferBucket(Table<K, V> table, Table<K, V> nextTable, int index) {
+        int capacity = table.capacity();
+
+        ReentrantLock lock = mLocks[index & (mLocks.length - 1)];
+        lock.lock();
+        try {
+            Node<K, V> low = null, high = null;
+            for (Node<K, V> node = table.buckets.get(index); node != null; node = node.next) {
+                if ((node.hash & capacity) == 0) {
+                    low = new Node<>(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node<>(node.hash, node.key, node.value, high);
+                }
+            }
+            nextTable.buckets.set(index, low);
+            nextTable.buckets.set(index + capacity, high);
+            table.buckets.set(index, new ForwardingNode<>(nextTable));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Visits every node of a bucket, following forwarding nodes
+    // into the two buckets a moved bucket was split into.
+    private static <K, V> void collect(Table<K, V> table, int index, List<Node<K, V>> nodes) {
+        Node<K, V> node = table.buckets.get(index);
+        if (node instanceof ForwardingNode) {
+            Table<K, V> nextTable = ((ForwardingNode<K, V>) node).nextTable;
+            collect(nextTable, index, nodes);
+            collect(nextTable, index + table.capacity(), nodes);
+            return;
+        }
+        for (; node != null; node = node.next) {
+            nodes.add(node);
+        }
+    }
+
+    private List<Node<K, V>> nodes() {
+        Table<K, V> table = mTable.get();
+        List<Node<K, V>> nodes = new ArrayList<>(size());
+        for (int i = 0; i < table.capacity(); i++) {
+            collect(table, i, nodes);
+        }
+        return nodes;
+    }
+
+    // Returns the list of keys
+    public List<K> keys() {
+        List<Node<K, V>> nodes = nodes();
+        List<K> keys = new ArrayList<>(nodes.size());
+        for (Node<K, V> node : nodes) {
+            keys.add(node.key);
+        }
+        return keys;
+    }
+
+    // Returns the list of values
+    public List<V> values() {
+        List<Node<K, V>> nodes = nodes();
+        List<V> values = new ArrayList<>(nodes.size());
+        for (Node<K, V> node : nodes) {
+            values.add(node.value);
+        }
+        return values;
+    }
+
+    // The iterator works on a snapshot of the keys, it never throws a
+    // ConcurrentModificationException and ignores later modifications.
+    @Override
+    public Iterator<K> iterator() {
+        final Iterator<K> iterator = keys().iterator();
+        return new Iterator<K>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public K next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (Node<K, V> node : nodes()) {
+            sb.append(node.key + " => " + node.value + ", ");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,109 @@
+package ds.hashtable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Compares the lookup latency distribution of HashTableCuckoo against linear
+// probing and double hashing with all tables filled to 90% of their slots. The
+// probing tables degrade in the tail as their clusters and probe sequences grow,
+// while a cuckoo lookup inspects at most two buckets and the stash.
+public class CuckooBenchmark {
+
+    private static final int CAPACITY = 1 << 20;
+    private static final double LOAD = 0.9;
+    private static final double LOAD_FACTOR = 0.95;
+    private static final int KEY_COUNT = (int) (CAPACITY * LOAD);
+    private static final int ROUNDS = 3;
+
+    // A key supporting double hashing
+    private static class Key implements HashTableDoubleHashing.SecondaryHash {
+
+        private final int mValue;
+
+        Key(int value) {
+            mValue = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return mValue;
+        }
+
+        @Override
+        public int hashCode2() {
+            return mValue * 31 + 7;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).mValue == mValue;
+        }
+
+    }
+
+    // The lookup shared by all tables
+    private interface Table {
+        Integer get(Key key);
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Key[] keys = new Key[KEY_COUNT];
+        Key[] missingKeys = new Key[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            int value = random.nextInt() & ~1;
+            keys[i] = new Key(value);
+            missingKeys[i] = new Key(value | 1);
+        }
+
+        // Load factors above the 90% fill keep the probing tables from resizing
+        HashTableLinearProbing<Key, Integer> linear = new HashTableLinearProbing<>(CAPACITY, LOAD_FACTOR);
+        HashTableDoubleHashing<Key, Integer> doubleHashing = new HashTableDoubleHashing<>(CAPACITY, LOAD_FACTOR);
+        HashTableCuckoo<Key, Integer> cuckoo = new HashTableCuckoo<>(CAPACITY, LOAD_FACTOR);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            linear.put(keys[i], i);
+            doubleHashing.put(keys[i], i);
+            cuckoo.put(keys[i], i);
+        }
+
+        System.out.printf("%d keys in %d slots%n", KEY_COUNT, CAPACITY);
+        System.out.printf("%-16s %-6s %8s %8s %8s %8s%n", "table", "lookup", "p50", "p99", "p99.9", "max");
+        for (int round = 0; round < ROUNDS; round++) {
+            run("Linear probing", linear::get, keys, missingKeys);
+            run("Double hashing", doubleHashing::get, keys, missingKeys);
+            run("Cuckoo", cuckoo::get, keys, missingKeys);
+        }
+    }
+
+    private static void run(String name, Table table, Key[] keys, Key[] missingKeys) {
+        long[] hits = new long[KEY_COUNT];
+        long[] misses = new long[KEY_COUNT];
+        int found = 0;
+
+        for (int i = 0; i < KEY_COUNT; i++) {
+            long start = System.nanoTime();
+            if (table.get(keys[i]) != null) found++;
+            hits[i] = System.nanoTime() - start;
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            long start = System.nanoTime();
+            if (table.get(missingKeys[i]) != null) found++;
+            misses[i] = System.nanoTime() - start;
+        }
+
+        if (found != KEY_COUNT) {
+            throw new IllegalStateException("Missing keys");
+        }
+        print(name, "hit", hits);
+        print(name, "miss", misses);
+    }
+
+    // Prints the percentiles of the lookup times in nanoseconds
+    private static void print(String name, String lookup, long[] times) {
+        Arrays.sort(times);
+        System.out.printf("%-16s %-6s %8d %8d %8d %8d%n", name, lookup,
+                times[times.length / 2], times[(int) (times.length * 0.99)],
+                times[(int) (times.length * 0.999)], times[times.length - 1]);
+    }
+
+}
@@ -1,17 +1,27 @@
 package ds.hashtable;
 
-public class Entry<K, V> {
+public class Entry<K, V> implements Comparable<Entry<K, V>> {
 
     int hash;
     K key;
     V value;
 
+    // Links the next entry of the same bucket in separate chaining. Inside a
+    // treeified bucket it links the entries which compare as equal.
+    Entry<K, V> next;
+
     public Entry(K key, V value) {
         this.key = key;
         this.value = value;
         this.hash = key.hashCode();
     }
 
+    Entry(int hash, K key, V value) {
+        this.hash = hash;
+        this.key = key;
+        this.value = value;
+    }
+
     public boolean equals(Entry<K, V> other) {
         if (hash != other.hash) {
             return false;
@@ -19,6 +29,30 @@ public class Entry<K, V> {
         return key.equals(other.key);
     }
 
+    // Entries are ordered by hash, then like java.util.HashMap orders its tree bins:
+    // by key when both keys are Comparable and of the same class, otherwise by class
+    // name and finally by identity hash code.
+    @Override
+    public int compareTo(Entry<K, V> other) {
+        int compare = Integer.compare(hash, other.hash);
+        if (compare != 0) {
+            return compare;
+        }
+        if (isComparableTo(key, other.key)) {
+            return ((Comparable<Object>) key).compareTo(other.key);
+        }
+        compare = key.getClass().getName().compareTo(other.key.getClass().getName());
+        if (compare != 0) {
+            return compare;
+        }
+        return Integer.compare(System.identityHashCode(key), System.identityHashCode(other.key));
+    }
+
+    // Returns if two keys are ordered by their own compareTo()
+    static boolean isComparableTo(Object key, Object other) {
+        return key instanceof Comparable && key.getClass() == other.getClass();
+    }
+
     @Override
     public String toString() {
         return key + " => " + value;
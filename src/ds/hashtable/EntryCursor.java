@@ -0,0 +1,16 @@
+package ds.hashtable;
+
+// A cursor over the entries of a hash-table. The cursor itself is the view of
+// the current entry, so walking a table allocates nothing per entry.
+public interface EntryCursor<K, V> {
+
+    // Moves to the next entry, returns false once all the entries were visited
+    boolean advance();
+
+    // The key of the current entry
+    K key();
+
+    // The value of the current entry
+    V value();
+
+}
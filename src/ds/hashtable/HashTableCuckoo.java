@@ -0,0 +1,399 @@
+package ds.hashtable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+// A cuckoo hash-table. Every key has exactly one bucket in each of two tables,
+// picked by two independent hash functions, and each bucket holds 4 slots. A key
+// which finds both of its buckets full evicts a random key from one of them, which
+// then moves to its own alternate bucket, and so on. Keys which can't be placed
+// after a bounded number of evictions go to a small stash.
+//
+// A lookup therefore inspects at most 2 * 4 slots plus the stash, no matter how
+// full the table is. Keys implementing HashTableDoubleHashing.SecondaryHash supply
+// the second hash function, for other keys it is derived from hashCode() with a
+// different mixer.
+//
+// The O(1) worst case of a lookup needs keys whose hash codes differ. Keys with
+// the same hashCode() share their first bucket, and unless they implement
+// SecondaryHash with different secondary hashes they share the second one too.
+// Only 8 of them fit in those two buckets, the others all go to the stash, which
+// then grows with them and is scanned in O(n). Keys exposed to colliding hash codes,
+// such as strings from untrusted input, should implement SecondaryHash with a hash
+// which does not derive from hashCode().
+public class HashTableCuckoo<K, V> implements Iterable<K> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.95;
+
+    // The number of slots in a bucket
+    private static final int BUCKET_SIZE = 4;
+
+    // The number of evictions tried before a key goes to the stash
+    private static final int MAX_KICKS = 500;
+
+    // The initial size of the stash. A full stash grows the table, unless the table
+    // is less than half full, in which case many keys share their hash codes and
+    // only a larger stash can hold them, see the class comment.
+    private static final int STASH_SIZE = 4;
+    private static final double MIN_RESIZE_LOAD = 0.5;
+
+    private final double mLoadFactor;
+    private int mModificationCount;
+
+    // The number of buckets in each of the two tables, always a power of two
+    private int mBucketCount;
+    private int mThreshold;
+    private int mKeyCount;
+
+    // The slots of both tables, the slots of bucket b of table t start at
+    // (t * bucketCount + b) * BUCKET_SIZE.
+    private K[] mKeys;
+    private V[] mValues;
+
+    private K[] mStashKeys;
+    private V[] mStashValues;
+    private int mStashCount;
+
+    // State of the xorshift generator picking the keys to evict
+    private int mRandom = 0x2545F491;
+
+    public HashTableCuckoo() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public HashTableCuckoo(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public HashTableCuckoo(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal loadFactor: " + loadFactor);
+        }
+        mLoadFactor = loadFactor;
+        mStashKeys = (K[]) new Object[STASH_SIZE];
+        mStashValues = (V[]) new Object[STASH_SIZE];
+        allocate(bucketCountFor(capacity));
+    }
+
+    // Returns a power of two number of buckets per table holding the capacity
+    private static int bucketCountFor(int capacity) {
+        int buckets = Math.max(1, (capacity + 2 * BUCKET_SIZE - 1) / (2 * BUCKET_SIZE));
+        int pow2 = Integer.highestOneBit(buckets);
+        return pow2 == buckets ? pow2 : pow2 << 1;
+    }
+
+    private void allocate(int bucketCount) {
+        mBucketCount = bucketCount;
+        mThreshold = (int) (2L * bucketCount * BUCKET_SIZE * mLoadFactor);
+        mKeys = (K[]) new Object[2 * bucketCount * BUCKET_SIZE];
+        mValues = (V[]) new Object[2 * bucketCount * BUCKET_SIZE];
+        mKeyCount = 0;
+    }
+
+    // Return the size of the hash-table
+    public int size() {
+        return mKeyCount;
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return mKeyCount == 0;
+    }
+
+    // Clear everything in the hash-table
+    public void clear() {
+        Arrays.fill(mKeys, null);
+        Arrays.fill(mValues, null);
+        Arrays.fill(mStashKeys, null);
+        Arrays.fill(mStashValues, null);
+        mKeyCount = mStashCount = 0;
+        mModificationCount++;
+    }
+
+    // Check is element contained in the hash-table
+    public boolean contains(K key) {
+        return indexOf(key) != -1 || stashIndexOf(key) != -1;
+    }
+
+    // Get the value associated with the input key.
+    // NOTE: returns null if the value is null AND also returns
+    // null if the key does not exists.
+    public V get(K key) {
+        int index = indexOf(key);
+        if (index != -1) {
+            return mValues[index];
+        }
+        index = stashIndexOf(key);
+        return index == -1 ? null : mStashValues[index];
+    }
+
+    // Place a key-value pair into the hash-table. If the value already
+    // exists inside the hash-table then the value is updated
+    public V put(K key, V value) {
+        int index = indexOf(key);
+        if (index != -1) {
+            V oldValue = mValues[index];
+            mValues[index] = value;
+            mModificationCount++;
+            return oldValue;
+        }
+        index = stashIndexOf(key);
+        if (index != -1) {
+            V oldValue = mStashValues[index];
+            mStashValues[index] = value;
+            mModificationCount++;
+            return oldValue;
+        }
+
+        if (mKeyCount >= mThreshold) {
+            resizeTable();
+        }
+        insertNew(key, value);
+        mModificationCount++;
+        return null;
+    }
+
+    // Removes a key from the map and returns the value.
+    // NOTE: returns null if the value is null AND also returns
+    // null if the key does not exist
+    public V remove(K key) {
+        int index = indexOf(key);
+        if (index != -1) {
+            V oldValue = mValues[index];
+            mKeys[index] = null;
+            mValues[index] = null;
+            mKeyCount--;
+            mModificationCount++;
+            return oldValue;
+        }
+
+        index = stashIndexOf(key);
+        if (index == -1) {
+            return null;
+        }
+
+        // Keep the stash compact by moving its last key into the hole
+        V oldValue = mStashValues[index];
+        mStashCount--;
+        mStashKeys[index] = mStashKeys[mStashCount];
+        mStashValues[index] = mStashValues[mStashCount];
+        mStashKeys[mStashCount] = null;
+        mStashValues[mStashCount] = null;
+        mKeyCount--;
+        mModificationCount++;
+        return oldValue;
+    }
+
+    // Returns the slot holding the key in one of its two buckets, or -1
+    private int indexOf(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+
+        int start = bucketStart(0, hash1(key));
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (key.equals(mKeys[i])) return i;
+        }
+        start = bucketStart(1, hash2(key));
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (key.equals(mKeys[i])) return i;
+        }
+        return -1;
+    }
+
+    // Returns the index of the key in the stash, or -1
+    private int stashIndexOf(K key) {
+        for (int i = 0; i < mStashCount; i++) {
+            if (key.equals(mStashKeys[i])) return i;
+        }
+        return -1;
+    }
+
+    // Places a key known not to be in the hash-table, evicting other keys to
+    // their alternate buckets when both of its buckets are full.
+    private void insertNew(K key, V value) {
+        K currentKey = key;
+        V currentValue = value;
+
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            int start1 = bucketStart(0, hash1(currentKey));
+            int start2 = bucketStart(1, hash2(currentKey));
+            if (placeInBucket(start1, currentKey, currentValue) || placeInBucket(start2, currentKey, currentValue)) {
+                mKeyCount++;
+                return;
+            }
+
+            // Both buckets are full, swap the carried key with a random key of one of them
+            int random = nextRandom();
+            int index = ((random & 1) == 0 ? start1 : start2) + ((random >>> 1) & (BUCKET_SIZE - 1));
+            K evictedKey = mKeys[index];
+            V evictedValue = mValues[index];
+            mKeys[index] = currentKey;
+            mValues[index] = currentValue;
+            currentKey = evictedKey;
+            currentValue = evictedValue;
+        }
+
+        if (mStashCount == mStashKeys.length) {
+            if (mKeyCount >= mKeys.length * MIN_RESIZE_LOAD) {
+                // Resizing re-places every key, including the carried one
+                resizeTable();
+                insertNew(currentKey, currentValue);
+                return;
+            }
+            mStashKeys = Arrays.copyOf(mStashKeys, 2 * mStashKeys.length);
+            mStashValues = Arrays.copyOf(mStashValues, 2 * mStashValues.length);
+        }
+        mStashKeys[mStashCount] = currentKey;
+        mStashValues[mStashCount] = currentValue;
+        mStashCount++;
+        mKeyCount++;
+    }
+
+    // Places a key in the first free slot of a bucket, returns false if the bucket is full
+    private boolean placeInBucket(int start, K key, V value) {
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            if (mKeys[i] == null) {
+                mKeys[i] = key;
+                mValues[i] = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Doubles the number of buckets and re-places every key, the stash included
+    private void resizeTable() {
+        K[] oldKeys = mKeys;
+        V[] oldValues = mValues;
+        K[] oldStashKeys = mStashKeys;
+        V[] oldStashValues = mStashValues;
+        int oldStashCount = mStashCount;
+
+        allocate(2 * mBucketCount);
+        mStashKeys = (K[]) new Object[Math.max(STASH_SIZE, oldStashCount)];
+        mStashValues = (V[]) new Object[mStashKeys.length];
+        mStashCount = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) insertNew(oldKeys[i], oldValues[i]);
+        }
+        for (int i = 0; i < oldStashCount; i++) {
+            insertNew(oldStashKeys[i], oldStashValues[i]);
+        }
+    }
+
+    // Returns the first slot of the bucket of a hash in one of the two tables
+    private int bucketStart(int table, int hash) {
+        return (table * mBucketCount + (hash & (mBucketCount - 1))) * BUCKET_SIZE;
+    }
+
+    // The first hash function, Fibonacci hashing of the hash code
+    private static int hash1(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    // The second hash function, the secondary hash of the key if it has one,
+    // otherwise the hash code mixed with the murmur3 finalizer.
+    private static int hash2(Object key) {
+        int hash = key instanceof HashTableDoubleHashing.SecondaryHash
+                ? ((HashTableDoubleHashing.SecondaryHash) key).hashCode2()
+                : key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private int nextRandom() {
+        mRandom ^= mRandom << 13;
+        mRandom ^= mRandom >>> 17;
+        mRandom ^= mRandom << 5;
+        return mRandom;
+    }
+
+    // Returns a list of keys found in the hash table
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>(size());
+        for (K key : mKeys) {
+            if (key != null) keys.add(key);
+        }
+        for (int i = 0; i < mStashCount; i++) {
+            keys.add(mStashKeys[i]);
+        }
+        return keys;
+    }
+
+    // Returns a list of non-unique values found in the hash table
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (int i = 0; i < mKeys.length; i++) {
+            if (mKeys[i] != null) values.add(mValues[i]);
+        }
+        for (int i = 0; i < mStashCount; i++) {
+            values.add(mStashValues[i]);
+        }
+        return values;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        // Before the iteration begins record the number of modifications
+        // done to the hash-table. This value should not change as we iterate
+        // otherwise a concurrent modification has occurred :0
+        final int MODIFICATION_COUNT = mModificationCount;
+
+        return new Iterator<K>() {
+            int index, keysLeft = mKeyCount;
+
+            @Override
+            public boolean hasNext() {
+                // The contents of the table have been altered
+                if (MODIFICATION_COUNT != mModificationCount) throw new ConcurrentModificationException();
+                return keysLeft != 0;
+            }
+
+            // Find the next element and return it, the stash follows the tables
+            @Override
+            public K next() {
+                while (true) {
+                    K key = index < mKeys.length ? mKeys[index] : mStashKeys[index - mKeys.length];
+                    index++;
+                    if (key != null) {
+                        keysLeft--;
+                        return key;
+                    }
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{");
+        for (int i = 0; i < mKeys.length; i++)
+            if (mKeys[i] != null) sb.append(mKeys[i] + " => " + mValues[i] + ", ");
+        for (int i = 0; i < mStashCount; i++)
+            sb.append(mStashKeys[i] + " => " + mStashValues[i] + ", ");
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+}
@@ -19,11 +19,19 @@ public class HashTableDoubleHashing<K extends HashTableDoubleHashing.SecondaryHa
         super(capacity, loadFactor);
     }
 
+    public HashTableDoubleHashing(int capacity, double loadFactor, boolean powerOfTwo) {
+        super(capacity, loadFactor, powerOfTwo);
+    }
+
     @Override
     protected void setupProbing(K key) {
         // Cache second hash value.
         hash = normalizeIndex(key.hashCode2());
 
+        // In power of two mode any odd step is coprime with the capacity,
+        // so all the cells can be reached without a prime capacity.
+        if (mPowerOfTwo) hash |= 1;
+
         // Fail safe to avoid infinite loop.
         if (hash == 0) hash = 1;
     }
@@ -35,11 +43,15 @@ public class HashTableDoubleHashing<K extends HashTableDoubleHashing.SecondaryHa
 
     // Adjust the capacity until it is a prime number. The reason for
     // doing this is to help ensure that the GCD(hash, capacity) = 1 when
-    // probing so that all the cells can be reached.
+    // probing so that all the cells can be reached. Not needed in power
+    // of two mode since the probing step is always odd.
     @Override
     protected void adjustCapacity() {
-        while (!(new BigInteger(String.valueOf(mCapacity)).isProbablePrime(20))) {
-            mCapacity++;
+        if (mPowerOfTwo) return;
+
+        BigInteger capacity = BigInteger.valueOf(mCapacity);
+        if (!capacity.isProbablePrime(20)) {
+            mCapacity = capacity.nextProbablePrime().intValue();
         }
     }
 
@@ -19,6 +19,10 @@ public class HashTableLinearProbing<K, V> extends HashTableOpenAddressing<K, V>
         super(capacity, loadFactor);
     }
 
+    public HashTableLinearProbing(int capacity, double loadFactor, boolean powerOfTwo) {
+        super(capacity, loadFactor, powerOfTwo);
+    }
+
     @Override
     protected void setupProbing(K key) {}
 
@@ -1,26 +1,59 @@
 package ds.hashtable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import javax.management.ObjectName;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 
 public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
 
     private static final int DEFAULT_CAPACITY = 7;
     private static final double DEFAULT_LOAD_FACTOR = 0.65;
 
+    // The number of slots moved to the new table per put/remove during an incremental resize
+    private static final int MIGRATION_STEP = 16;
+
+    // The largest capacity ensureCapacity() grows to, doubling it must not overflow
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // The number of keys whose home slots are computed ahead of the probing in the batch operations
+    private static final int BATCH_CHUNK = 64;
+
+    // Slot ranges smaller than this are not split any further by the spliterator
+    private static final int MIN_SPLIT_SLOTS = 1 << 10;
+
     protected double mLoadFactor;
     protected int mCapacity;
     protected int mThreshold;
     protected int mModificationCount;
 
+    // When set the capacity is always a power of two, so indexes are computed
+    // with a bit mask instead of a modulo and key hashes are spread first.
+    protected final boolean mPowerOfTwo;
+
     // 'usedBuckets' counts the total number of used buckets inside the
     // hash-table (includes cells marked as deleted). While 'keyCount'
     // tracks the number of unique keys currently inside the hash-table.
     protected int mUsedBuckets;
     protected int mKeyCount;
 
+    // 'tombstoneCount' tracks the cells of the table marked as deleted. A resize
+    // only rehashes at the same capacity when tombstones make up most of the
+    // used buckets, and the table shrinks again once the live keys drop well
+    // below the threshold, but never below the capacity it was created with.
+    protected int mTombstoneCount;
+    protected int mMinCapacity;
+
     // These arrays store the key-value pairs.
     protected K[] mKeys;
     protected V[] mValues;
@@ -28,6 +61,28 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
     // Special marker token used to indicate the deletion of a key-value pair
     protected final K TOMBSTONE = (K) (new Object());
 
+    // With incremental resizing a resize only allocates the new table. The old
+    // table is kept aside and drained a few slots per put/remove, and lookups
+    // consult both tables until it is empty. A key is never in both tables.
+    protected boolean mIncrementalResize;
+    protected K[] mOldKeys;
+    protected V[] mOldValues;
+    protected int mOldCapacity;
+    protected int mMigrateIndex;
+
+    // The home slots of the current chunk of a batch operation, and while the chunk
+    // is probed the current slot and probe count of each key and the keys left
+    private final int[] mBatchHomes = new int[BATCH_CHUNK];
+    private final int[] mBatchSlots = new int[BATCH_CHUNK];
+    private final int[] mBatchProbes = new int[BATCH_CHUNK];
+    private final int[] mBatchPending = new int[BATCH_CHUNK];
+
+    // The statistics counters, null unless statistics are enabled
+    protected HashTableStats.Recorder mStats;
+
+    // The MXBean the statistics are published to, null unless registered
+    private HashTableStats.Publisher mStatsPublisher;
+
     protected HashTableOpenAddressing() {
         this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
     }
@@ -37,6 +92,10 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
     }
 
     protected HashTableOpenAddressing(int capacity, double loadFactor) {
+        this(capacity, loadFactor, false);
+    }
+
+    protected HashTableOpenAddressing(int capacity, double loadFactor, boolean powerOfTwo) {
         if (capacity <= 0) {
             throw new IllegalArgumentException("Illegal capacity: " + capacity);
         }
@@ -46,9 +105,14 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
         }
 
         mLoadFactor = loadFactor;
+        mPowerOfTwo = powerOfTwo;
         mCapacity = Math.max(DEFAULT_CAPACITY, capacity);
+        if (powerOfTwo) {
+            mCapacity = ceilPowerOfTwo(mCapacity);
+        }
         adjustCapacity();
         mThreshold = (int) (this.mCapacity * loadFactor);
+        mMinCapacity = mCapacity;
 
         mKeys = (K[]) new Object[mCapacity];
         mValues = (V[]) new Object[mCapacity];
@@ -65,6 +129,47 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
     // controls the functionality of the probing function.
     protected abstract void adjustCapacity();
 
+    // Enables or disables incremental resizing, disabling it
+    // finishes any resize which is still in progress.
+    public void setIncrementalResize(boolean incrementalResize) {
+        mIncrementalResize = incrementalResize;
+        if (!incrementalResize) {
+            finishMigration();
+        }
+    }
+
+    // Enables or disables collecting statistics, disabling them drops the counters
+    public void setStatsEnabled(boolean statsEnabled) {
+        if (statsEnabled && !HashTableStats.ENABLED) {
+            throw new IllegalStateException("Statistics are disabled");
+        }
+        mStats = statsEnabled ? new HashTableStats.Recorder() : null;
+    }
+
+    // Returns a snapshot of the statistics collected so far
+    public HashTableStats stats() {
+        int maxProbes = mStats == null ? 0 : mStats.maxProbes;
+        return new HashTableStats(mStats, mKeyCount, mCapacity, mTombstoneCount, maxProbes);
+    }
+
+    // Enables statistics and exposes them through JMX under the given name. JMX only
+    // sees the snapshots published by publishStats() and by every resize.
+    public ObjectName registerStatsMBean(String name) {
+        if (mStats == null) {
+            setStatsEnabled(true);
+        }
+        mStatsPublisher = HashTableStats.register(name, this, stats());
+        return mStatsPublisher.objectName();
+    }
+
+    // Publishes a fresh snapshot of the statistics to the registered MXBean, to be
+    // called by the thread using the hash-table whenever JMX should see new values.
+    public void publishStats() {
+        if (mStatsPublisher != null) {
+            mStatsPublisher.publish(stats());
+        }
+    }
+
     // Return the size of the hash-table
     public int size() {
         return mKeyCount;
@@ -81,7 +186,9 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
             mKeys[i] = null;
             mValues[i] = null;
         }
-        mKeyCount = mUsedBuckets = 0;
+        mOldKeys = null;
+        mOldValues = null;
+        mKeyCount = mUsedBuckets = mTombstoneCount = 0;
         mModificationCount++;
     }
 
@@ -92,7 +199,7 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
         }
 
         setupProbing(key);
-        int offset = normalizeIndex(key.hashCode());
+        int offset = normalizeIndex(hash(key));
 
         // Starting at the original hash linearly probe until we find a spot where
         // our key is, or we hit a null element in which case our element does not exist.
@@ -120,12 +227,17 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                         mValues[j] = mValues[i];
                         mKeys[i] = TOMBSTONE;
                         mValues[i] = null;
+                        if (HashTableStats.ENABLED && mStats != null) mStats.recordLazyRelocation();
                     }
+                    if (HashTableStats.ENABLED && mStats != null) mStats.recordHit(x);
                     return true;
                 }
 
                 // Key was not found in the hash-table :/
-            } else return false;
+            } else {
+                if (HashTableStats.ENABLED && mStats != null) mStats.recordMiss(x);
+                return mOldKeys != null && oldTableIndexOf(key) != -1;
+            }
         }
     }
 
@@ -135,8 +247,12 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
     public V get(K key) {
         if (key == null) throw new IllegalArgumentException("Null key");
 
+        return getFromHome(key, normalizeIndex(hash(key)));
+    }
+
+    // Get the value associated with a key whose home slot is already known
+    protected V getFromHome(K key, int offset) {
         setupProbing(key);
-        final int offset = normalizeIndex(key.hashCode());
 
         // Starting at the original hash linearly probe until we find a spot where
         // our key is or we hit a null element in which case our element does not exist.
@@ -158,12 +274,14 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                     // We can perform an optimization by swapping the entries in cells
                     // i and j so that the next time we search for this key it will be
                     // found faster. This is called lazy deletion/relocation.
+                    if (HashTableStats.ENABLED && mStats != null) mStats.recordHit(x);
                     if (j != -1) {
                         // Swap key-values pairs at indexes i and j.
                         mKeys[j] = mKeys[i];
                         mValues[j] = mValues[i];
                         mKeys[i] = TOMBSTONE;
                         mValues[i] = null;
+                        if (HashTableStats.ENABLED && mStats != null) mStats.recordLazyRelocation();
                         return mValues[j];
                     } else {
                         return mValues[i];
@@ -171,7 +289,10 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                 }
 
                 // Element was not found in the hash-table :/
-            } else return null;
+            } else {
+                if (HashTableStats.ENABLED && mStats != null) mStats.recordMiss(x);
+                return mOldKeys == null ? null : getFromOldTable(key);
+            }
         }
     }
 
@@ -185,8 +306,28 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
             resizeTable();
         }
 
+        // While resizing incrementally the key may still be in the old table,
+        // in which case it's moved to the new table along with its new value.
+        if (mOldKeys != null) {
+            migrateStep();
+            int oldIndex = mOldKeys == null ? -1 : oldTableIndexOf(key);
+            if (oldIndex != -1) {
+                V oldValue = mOldValues[oldIndex];
+                mOldKeys[oldIndex] = TOMBSTONE;
+                mOldValues[oldIndex] = null;
+                insertMigrated(key, val);
+                mModificationCount++;
+                return oldValue;
+            }
+        }
+
+        return putFromHome(key, val, normalizeIndex(hash(key)));
+    }
+
+    // Place a key-value pair whose home slot is already known into the hash-table.
+    // The caller has made sure the table doesn't need to grow first.
+    protected V putFromHome(K key, V val, int offset) {
         setupProbing(key);
-        final int offset = normalizeIndex(key.hashCode());
 
         for (int i = offset, j = -1, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
 
@@ -227,6 +368,7 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                     // it where the deleted token was found.
                 } else {
                     mKeyCount++;
+                    mTombstoneCount--;
                     mKeys[j] = key;
                     mValues[j] = val;
                 }
@@ -243,8 +385,25 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
     public V remove(K key) {
         if (key == null) throw new IllegalArgumentException("Null key");
 
+        if (mOldKeys != null) {
+            migrateStep();
+            int oldIndex = mOldKeys == null ? -1 : oldTableIndexOf(key);
+            if (oldIndex != -1) {
+                mKeyCount--;
+                mModificationCount++;
+                V oldValue = mOldValues[oldIndex];
+                mOldKeys[oldIndex] = TOMBSTONE;
+                mOldValues[oldIndex] = null;
+                return oldValue;
+            }
+        }
+
+        return removeFromHome(key, normalizeIndex(hash(key)));
+    }
+
+    // Removes a key whose home slot is already known and returns the value
+    protected V removeFromHome(K key, int offset) {
         setupProbing(key);
-        final int offset = normalizeIndex(key.hashCode());
 
         // Starting at the hash linearly probe until we find a spot where
         // our key is or we hit a null element in which case our element does not exist
@@ -259,18 +418,42 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
             // The key we want to remove is in the hash-table!
             if (mKeys[i].equals(key)) {
                 mKeyCount--;
+                mTombstoneCount++;
                 mModificationCount++;
                 V oldValue = mValues[i];
                 mKeys[i] = TOMBSTONE;
                 mValues[i] = null;
+                shrinkTable();
                 return oldValue;
             }
         }
     }
 
+    // Returns the hash of a key used to find its home slot. In power of two
+    // mode only the low bits are used, so the hash is spread by a mixer first.
+    protected int hash(K key) {
+        int hash = key.hashCode();
+        return mPowerOfTwo ? spread(hash) : hash;
+    }
+
+    // Mixes the high bits of a hash into its low bits (Fibonacci hashing)
+    protected static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    // Returns the smallest power of two greater than or equal to n
+    protected static int ceilPowerOfTwo(int n) {
+        int pow2 = Integer.highestOneBit(n);
+        return pow2 == n ? n : pow2 << 1;
+    }
+
     // Converts a hash value to an index. Essentially, this strips the
     // negative sign and places the hash value in the domain [0, capacity)
     protected int normalizeIndex(int keyHash) {
+        if (mPowerOfTwo) {
+            return keyHash & (mCapacity - 1);
+        }
         return (keyHash & 0x7FFFFFFF) % mCapacity;
     }
 
@@ -284,15 +467,104 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
 
     // Increases the capacity of the hash table.
     protected void increaseCapacity() {
-        mCapacity = (2 * mCapacity) + 1;
+        if (mPowerOfTwo) {
+            mCapacity = 2 * mCapacity;
+        } else {
+            mCapacity = (2 * mCapacity) + 1;
+        }
+    }
+
+    // Decreases the capacity of the hash table, the inverse of increaseCapacity.
+    protected void decreaseCapacity() {
+        if (mPowerOfTwo) {
+            mCapacity = mCapacity / 2;
+        } else {
+            mCapacity = (mCapacity - 1) / 2;
+        }
     }
 
-    // Double the size of the hash-table
+    // Double the size of the hash-table, unless most of the used buckets are
+    // tombstones in which case rehashing at the same size purges them instead.
     protected void resizeTable() {
-        increaseCapacity();
+        // A resize can only start once the previous one is done
+        finishMigration();
+
+        if (mTombstoneCount < mUsedBuckets / 2) {
+            increaseCapacity();
+            adjustCapacity();
+        }
+        timedRehashTable();
+    }
+
+    // Halves the size of the hash-table once the keys fill less than a quarter
+    // of the threshold, so it ends up half as loaded as a table about to grow.
+    protected void shrinkTable() {
+        if (mKeyCount >= mThreshold / 4 || mOldKeys != null || mCapacity <= mMinCapacity) {
+            return;
+        }
+
+        // Stops at the initial capacity, which is already adjusted, so once the
+        // table is back there later removals skip computing a new capacity.
+        int capacity = mCapacity;
+        decreaseCapacity();
         adjustCapacity();
+        mCapacity = Math.max(mCapacity, mMinCapacity);
+        if (mCapacity >= capacity) {
+            mCapacity = capacity;
+            return;
+        }
+        timedRehashTable();
+    }
+
+    // Shrinks the capacity as far as repeated shrinkTable() calls would and then
+    // rebuilds the hash-table once, for bulk removals which left holes behind.
+    protected void compactTable() {
+        finishMigration();
+
+        while (mKeyCount < mThreshold / 4 && mCapacity > mMinCapacity) {
+            int capacity = mCapacity;
+            decreaseCapacity();
+            adjustCapacity();
+            mCapacity = Math.max(mCapacity, mMinCapacity);
+            if (mCapacity >= capacity) {
+                mCapacity = capacity;
+                break;
+            }
+            mThreshold = (int) (mCapacity * mLoadFactor);
+        }
+        timedRehashTable();
+    }
+
+    // Rebuilds the hash-table while recording the time spent when statistics are
+    // enabled, then publishes the statistics if an MXBean is registered
+    private void timedRehashTable() {
+        if (HashTableStats.ENABLED && mStats != null) {
+            long start = System.nanoTime();
+            rehashTable();
+            mStats.recordResize(System.nanoTime() - start);
+        } else {
+            rehashTable();
+        }
+        publishStats();
+    }
 
+    // Rebuilds the hash-table at the current capacity, which drops all the tombstones
+    protected void rehashTable() {
         mThreshold = (int) (mCapacity * mLoadFactor);
+        mTombstoneCount = 0;
+
+        if (mIncrementalResize) {
+            // Keep the current table aside and start with an empty one,
+            // the keys are moved over by the following put/remove calls.
+            mOldKeys = mKeys;
+            mOldValues = mValues;
+            mOldCapacity = mOldKeys.length;
+            mMigrateIndex = 0;
+            mKeys = (K[]) new Object[mCapacity];
+            mValues = (V[]) new Object[mCapacity];
+            mUsedBuckets = 0;
+            return;
+        }
 
         K[] oldKeyTable = (K[]) new Object[mCapacity];
         V[] oldValueTable = (V[]) new Object[mCapacity];
@@ -319,6 +591,264 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
         }
     }
 
+    // Grows the hash-table up front so it can hold 'expectedSize' keys without resizing
+    public void ensureCapacity(int expectedSize) {
+        finishMigration();
+
+        int capacity = mCapacity;
+        while ((long) (mCapacity * mLoadFactor) <= expectedSize) {
+            if (mCapacity > MAX_CAPACITY / 2) {
+                mCapacity = capacity;
+                throw new IllegalArgumentException("Illegal expectedSize: " + expectedSize);
+            }
+            increaseCapacity();
+            adjustCapacity();
+        }
+        if (mCapacity != capacity) {
+            timedRehashTable();
+            finishMigration();
+        }
+    }
+
+    // Places all the key-value pairs into the hash-table. The previous value of
+    // keys[i] is stored in oldValues[i] unless oldValues is null.
+    public void putAll(K[] keys, V[] values, V[] oldValues) {
+        checkBatch(keys, values);
+        checkBatch(keys, oldValues);
+
+        ensureBatchCapacity(keys.length);
+
+        for (int start = 0; start < keys.length; start += BATCH_CHUNK) {
+            int end = Math.min(start + BATCH_CHUNK, keys.length);
+            int capacity = computeHomes(keys, start, end);
+            boolean probed = mOldKeys == null;
+            if (probed) {
+                probeChunk(keys, start, end);
+            }
+
+            for (int i = start; i < end; i++) {
+                // The slot found by probing is only trusted if it still holds the key,
+                // earlier keys of the chunk may have moved it or rebuilt the table.
+                int slot = probed ? mBatchSlots[i - start] : -1;
+                V oldValue;
+                if (slot != -1 && mKeys[slot] != TOMBSTONE && mKeys[slot] != null && mKeys[slot].equals(keys[i])) {
+                    oldValue = mValues[slot];
+                    mValues[slot] = values[i];
+                    mModificationCount++;
+                } else if (mCapacity == capacity && mOldKeys == null && mUsedBuckets < mThreshold) {
+                    oldValue = putFromHome(keys[i], values[i], mBatchHomes[i - start]);
+                } else {
+                    oldValue = put(keys[i], values[i]);
+                }
+                if (oldValues != null) oldValues[i] = oldValue;
+            }
+        }
+    }
+
+    // Gets the values of all the keys, the value of keys[i] is stored in values[i]
+    public void getAll(K[] keys, V[] values) {
+        checkBatch(keys, values);
+
+        for (int start = 0; start < keys.length; start += BATCH_CHUNK) {
+            int end = Math.min(start + BATCH_CHUNK, keys.length);
+            computeHomes(keys, start, end);
+
+            if (mOldKeys == null) {
+                probeChunk(keys, start, end);
+                for (int i = start; i < end; i++) {
+                    int slot = mBatchSlots[i - start];
+                    values[i] = slot == -1 ? null : mValues[slot];
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    values[i] = getFromHome(keys[i], mBatchHomes[i - start]);
+                }
+            }
+        }
+    }
+
+    // Removes all the keys from the hash-table. The removed value of
+    // keys[i] is stored in oldValues[i] unless oldValues is null.
+    public void removeAll(K[] keys, V[] oldValues) {
+        checkBatch(keys, oldValues);
+
+        for (int start = 0; start < keys.length; start += BATCH_CHUNK) {
+            int end = Math.min(start + BATCH_CHUNK, keys.length);
+            int capacity = computeHomes(keys, start, end);
+
+            for (int i = start; i < end; i++) {
+                V oldValue;
+                if (mCapacity == capacity && mOldKeys == null) {
+                    oldValue = removeFromHome(keys[i], mBatchHomes[i - start]);
+                } else {
+                    oldValue = remove(keys[i]);
+                }
+                if (oldValues != null) oldValues[i] = oldValue;
+            }
+        }
+    }
+
+    // Computes the home slots of a chunk of keys before any of them is probed, so
+    // the hashing of the whole chunk is done in one tight loop. Returns the capacity
+    // the slots are valid for, a resize in the middle of the chunk invalidates them.
+    private int computeHomes(K[] keys, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (keys[i] == null) throw new IllegalArgumentException("Null key");
+            mBatchHomes[i - start] = normalizeIndex(hash(keys[i]));
+        }
+        return mCapacity;
+    }
+
+    // Probes a chunk of keys from their home slots in an interleaved order, every
+    // round moves each key still searched one probe further. The cache misses of
+    // the keys overlap instead of being paid one after the other. Stores the slot
+    // of each key in mBatchSlots, or -1 if the key is not in the new table. The
+    // lookups skip the lazy relocation done by get().
+    private void probeChunk(K[] keys, int start, int end) {
+        int pending = end - start;
+        for (int i = 0; i < pending; i++) {
+            mBatchSlots[i] = mBatchHomes[i];
+            mBatchProbes[i] = 1;
+            mBatchPending[i] = i;
+        }
+
+        while (pending > 0) {
+            int left = 0;
+            for (int p = 0; p < pending; p++) {
+                int i = mBatchPending[p];
+                K key = mKeys[mBatchSlots[i]];
+                if (key == null) {
+                    if (HashTableStats.ENABLED && mStats != null) mStats.recordMiss(mBatchProbes[i]);
+                    mBatchSlots[i] = -1;
+                } else if (key != TOMBSTONE && key.equals(keys[start + i])) {
+                    if (HashTableStats.ENABLED && mStats != null) mStats.recordHit(mBatchProbes[i]);
+                } else {
+                    // The probing may keep state per key, so set it up before each step
+                    setupProbing(keys[start + i]);
+                    mBatchSlots[i] = normalizeIndex(mBatchHomes[i] + probe(mBatchProbes[i]++));
+                    mBatchPending[left++] = i;
+                }
+            }
+            pending = left;
+        }
+    }
+
+    // Sizes the hash-table once for a batch of keys which may all be new. The batch
+    // may as well only update existing keys, so the size is capped below the largest
+    // one ensureCapacity() accepts instead of rejecting the batch.
+    private void ensureBatchCapacity(int count) {
+        long limit = Math.min((long) (MAX_CAPACITY / 2 * mLoadFactor), Integer.MAX_VALUE);
+        long expectedSize = Math.min((long) mKeyCount + count, limit);
+        ensureCapacity((int) Math.max(expectedSize, Math.max(mKeyCount, count)));
+    }
+
+    // Makes sure a result array of a batch operation can hold a value for every key
+    private static void checkBatch(Object[] keys, Object[] values) {
+        if (values != null && values.length < keys.length) {
+            throw new IllegalArgumentException("Illegal array length: " + values.length);
+        }
+    }
+
+    // Streams the key-value pairs of the hash-table as a binary snapshot, without
+    // building any intermediate collection. Read it back with readSnapshot().
+    public void writeSnapshot(DataOutput out, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        SnapshotCodec.writeHeader(out, mKeyCount);
+        for (int i = 0; i < mCapacity; i++) {
+            if (mKeys[i] != null && mKeys[i] != TOMBSTONE) {
+                SnapshotCodec.writeEntry(out, mKeys[i], mValues[i], keyCodec, valueCodec);
+            }
+        }
+        for (int i = 0; mOldKeys != null && i < mOldCapacity; i++) {
+            if (mOldKeys[i] != null && mOldKeys[i] != TOMBSTONE) {
+                SnapshotCodec.writeEntry(out, mOldKeys[i], mOldValues[i], keyCodec, valueCodec);
+            }
+        }
+    }
+
+    // Loads the entries of a snapshot written by writeSnapshot() into the hash-table.
+    // The table is sized up front for at most MAX_PRESIZE_ENTRIES of them, beyond
+    // that it grows as usual while the entries are read.
+    public void readSnapshot(DataInput in, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        int count = SnapshotCodec.readHeader(in);
+
+        ensureCapacity(mKeyCount + Math.min(count, SnapshotCodec.MAX_PRESIZE_ENTRIES));
+        for (int i = 0; i < count; i++) {
+            K key = keyCodec.read(in);
+            put(key, SnapshotCodec.readValue(in, valueCodec));
+        }
+    }
+
+    // Moves the next few slots of the old table to the new table
+    protected void migrateStep() {
+        int end = Math.min(mMigrateIndex + MIGRATION_STEP, mOldCapacity);
+        for (; mMigrateIndex < end; mMigrateIndex++) {
+            K key = mOldKeys[mMigrateIndex];
+            if (key != null && key != TOMBSTONE) {
+                insertMigrated(key, mOldValues[mMigrateIndex]);
+
+                // Deleted marker instead of null so the probing
+                // of the keys left in the old table still works.
+                mOldKeys[mMigrateIndex] = TOMBSTONE;
+                mOldValues[mMigrateIndex] = null;
+            }
+        }
+        if (mMigrateIndex == mOldCapacity) {
+            mOldKeys = null;
+            mOldValues = null;
+        }
+    }
+
+    // Moves every key left in the old table to the new table
+    protected void finishMigration() {
+        while (mOldKeys != null) {
+            migrateStep();
+        }
+    }
+
+    // Places a key known not to be in the new table into its first free or
+    // deleted slot. The key is already counted by 'keyCount'.
+    protected void insertMigrated(K key, V value) {
+        setupProbing(key);
+        final int offset = normalizeIndex(hash(key));
+
+        for (int i = offset, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
+            if (mKeys[i] == null || mKeys[i] == TOMBSTONE) {
+                if (mKeys[i] == null) mUsedBuckets++;
+                else mTombstoneCount--;
+                mKeys[i] = key;
+                mValues[i] = value;
+                return;
+            }
+        }
+    }
+
+    // Returns the slot of a key in the old table, or -1 if it's not there. The
+    // probing depends on the capacity, so the old table is swapped in while probing.
+    protected int oldTableIndexOf(K key) {
+        K[] keys = mKeys;
+        int capacity = mCapacity;
+        mKeys = mOldKeys;
+        mCapacity = mOldCapacity;
+        try {
+            setupProbing(key);
+            final int offset = normalizeIndex(hash(key));
+
+            for (int i = offset, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
+                if (mKeys[i] == null) return -1;
+                if (mKeys[i] != TOMBSTONE && mKeys[i].equals(key)) return i;
+            }
+        } finally {
+            mKeys = keys;
+            mCapacity = capacity;
+        }
+    }
+
+    // Returns the value of a key in the old table, or null if it's not there
+    protected V getFromOldTable(K key) {
+        int index = oldTableIndexOf(key);
+        return index == -1 ? null : mOldValues[index];
+    }
+
     // Returns a list of keys found in the hash table
     public List<K> keys() {
         List<K> hashtableKeys = new ArrayList<>(size());
@@ -327,6 +857,11 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                 hashtableKeys.add(mKeys[i]);
             }
         }
+        for (int i = 0; mOldKeys != null && i < mOldCapacity; i++) {
+            if (mOldKeys[i] != null && mOldKeys[i] != TOMBSTONE) {
+                hashtableKeys.add(mOldKeys[i]);
+            }
+        }
         return hashtableKeys;
     }
 
@@ -338,9 +873,206 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                 hashtableValues.add(mValues[i]);
             }
         }
+        for (int i = 0; mOldKeys != null && i < mOldCapacity; i++) {
+            if (mOldKeys[i] != null && mOldKeys[i] != TOMBSTONE) {
+                hashtableValues.add(mOldValues[i]);
+            }
+        }
         return hashtableValues;
     }
 
+    // Returns the number of slots across the new and old table, the slots
+    // of the old table follow the slots of the new one.
+    protected int slotCount() {
+        return mOldKeys == null ? mCapacity : mCapacity + mOldCapacity;
+    }
+
+    // Returns the key of a slot, see slotCount()
+    protected K keyAt(int index) {
+        return index < mCapacity ? mKeys[index] : mOldKeys[index - mCapacity];
+    }
+
+    // Returns the value of a slot, see slotCount()
+    protected V valueAt(int index) {
+        return index < mCapacity ? mValues[index] : mOldValues[index - mCapacity];
+    }
+
+    // Performs the action for every key-value pair in a single pass over the slots
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        final int MODIFICATION_COUNT = mModificationCount;
+        for (int i = 0; i < slotCount(); i++) {
+            K key = keyAt(i);
+            if (key != null && key != TOMBSTONE) {
+                action.accept(key, valueAt(i));
+                if (MODIFICATION_COUNT != mModificationCount) throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    // Returns a cursor over the key-value pairs, see EntryCursor
+    public EntryCursor<K, V> cursor() {
+        final int MODIFICATION_COUNT = mModificationCount;
+
+        return new EntryCursor<K, V>() {
+            int index = -1;
+
+            @Override
+            public boolean advance() {
+                // The contents of the table have been altered
+                if (MODIFICATION_COUNT != mModificationCount) throw new ConcurrentModificationException();
+                while (++index < slotCount()) {
+                    K key = keyAt(index);
+                    if (key != null && key != TOMBSTONE) return true;
+                }
+                return false;
+            }
+
+            @Override
+            public K key() {
+                return keyAt(index);
+            }
+
+            @Override
+            public V value() {
+                return valueAt(index);
+            }
+        };
+    }
+
+    // Performs the action for every key-value pair in parallel on the common
+    // ForkJoinPool, the action may be called from many threads at once.
+    public void parallelForEach(BiConsumer<? super K, ? super V> action) {
+        final int MODIFICATION_COUNT = mModificationCount;
+        invokeOnSlots((start, end) -> {
+            for (int i = start; i < end; i++) {
+                if (mKeys[i] != null && mKeys[i] != TOMBSTONE) action.accept(mKeys[i], mValues[i]);
+            }
+            return null;
+        }, (a, b) -> null);
+        if (MODIFICATION_COUNT != mModificationCount) throw new ConcurrentModificationException();
+    }
+
+    // Transforms every key-value pair and combines the non-null results in parallel.
+    // Returns null if the hash-table is empty or all the results are null.
+    public <U> U parallelReduce(BiFunction<? super K, ? super V, ? extends U> transformer, BinaryOperator<U> reducer) {
+        final int MODIFICATION_COUNT = mModificationCount;
+        U result = invokeOnSlots((start, end) -> {
+            U partial = null;
+            for (int i = start; i < end; i++) {
+                if (mKeys[i] != null && mKeys[i] != TOMBSTONE) {
+                    U value = transformer.apply(mKeys[i], mValues[i]);
+                    if (value != null) partial = partial == null ? value : reducer.apply(partial, value);
+                }
+            }
+            return partial;
+        }, reducer);
+        if (MODIFICATION_COUNT != mModificationCount) throw new ConcurrentModificationException();
+        return result;
+    }
+
+    // Removes every key-value pair matching the filter in parallel and returns the
+    // number of removed pairs. Each range of slots is only written by a single task.
+    public int parallelRemoveIf(BiPredicate<? super K, ? super V> filter) {
+        int removed = invokeOnSlots((start, end) -> {
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (mKeys[i] != null && mKeys[i] != TOMBSTONE && filter.test(mKeys[i], mValues[i])) {
+                    mKeys[i] = TOMBSTONE;
+                    mValues[i] = null;
+                    count++;
+                }
+            }
+            return count;
+        }, Integer::sum);
+
+        if (removed > 0) {
+            mKeyCount -= removed;
+            mTombstoneCount += removed;
+            mModificationCount++;
+            shrinkTable();
+        }
+        return removed;
+    }
+
+    // Computes a result for the slots [start, end)
+    protected interface SlotRangeFunction<U> extends RangeTask.RangeFunction<U> {
+    }
+
+    // Applies the function to ranges of slots on the common ForkJoinPool and combines
+    // the non-null results. Any incremental resize is finished first so all the keys
+    // are in a single table. Returns null if every range returned null.
+    protected <U> U invokeOnSlots(SlotRangeFunction<U> function, BinaryOperator<U> combiner) {
+        finishMigration();
+        return RangeTask.invoke(mCapacity, MIN_SPLIT_SLOTS, function, combiner);
+    }
+
+    // Returns a spliterator over the keys which splits the slots into ranges
+    @Override
+    public Spliterator<K> spliterator() {
+        return new SlotSpliterator(0, slotCount(), mModificationCount);
+    }
+
+    // Traverses the keys of a range of slots, see slotCount()
+    private class SlotSpliterator implements Spliterator<K> {
+
+        private int mIndex;
+        private final int mEnd;
+        private final int mExpectedModificationCount;
+
+        SlotSpliterator(int index, int end, int expectedModificationCount) {
+            mIndex = index;
+            mEnd = end;
+            mExpectedModificationCount = expectedModificationCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super K> action) {
+            while (mIndex < mEnd) {
+                K key = keyAt(mIndex++);
+                if (key != null && key != TOMBSTONE) {
+                    action.accept(key);
+                    if (mExpectedModificationCount != mModificationCount) throw new ConcurrentModificationException();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super K> action) {
+            for (; mIndex < mEnd; mIndex++) {
+                K key = keyAt(mIndex);
+                if (key != null && key != TOMBSTONE) action.accept(key);
+            }
+            if (mExpectedModificationCount != mModificationCount) throw new ConcurrentModificationException();
+        }
+
+        // Splits off the first half of the remaining slots
+        @Override
+        public Spliterator<K> trySplit() {
+            int mid = (mIndex + mEnd) >>> 1;
+            if (mid - mIndex < MIN_SPLIT_SLOTS) {
+                return null;
+            }
+            Spliterator<K> prefix = new SlotSpliterator(mIndex, mid, mExpectedModificationCount);
+            mIndex = mid;
+            return prefix;
+        }
+
+        // Assumes the keys are spread evenly over the slots
+        @Override
+        public long estimateSize() {
+            int slotCount = slotCount();
+            return slotCount == 0 ? 0 : (long) mKeyCount * (mEnd - mIndex) / slotCount;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+    }
+
     @Override
     public Iterator<K> iterator() {
         // Before the iteration begins record the number of modifications
@@ -358,12 +1090,18 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
                 return keysLeft != 0;
             }
 
-            // Find the next element and return it
+            // Find the next element and return it, the slots of the old
+            // table follow the slots of the new one.
             @Override
             public K next() {
-                while (mKeys[index] == null || mKeys[index] == TOMBSTONE) index++;
-                keysLeft--;
-                return mKeys[index++];
+                while (true) {
+                    K key = index < mCapacity ? mKeys[index] : mOldKeys[index - mCapacity];
+                    index++;
+                    if (key != null && key != TOMBSTONE) {
+                        keysLeft--;
+                        return key;
+                    }
+                }
             }
 
             @Override
@@ -380,6 +1118,8 @@ public abstract class HashTableOpenAddressing<K, V> implements Iterable<K> {
         sb.append("{");
         for (int i = 0; i < mCapacity; i++)
             if (mKeys[i] != null && mKeys[i] != TOMBSTONE) sb.append(mKeys[i] + " => " + mValues[i] + ", ");
+        for (int i = 0; mOldKeys != null && i < mOldCapacity; i++)
+            if (mOldKeys[i] != null && mOldKeys[i] != TOMBSTONE) sb.append(mOldKeys[i] + " => " + mOldValues[i] + ", ");
         sb.append("}");
 
         return sb.toString();
@@ -15,6 +15,12 @@ public class HashTableQuadraticProbing<K, V> extends HashTableOpenAddressing<K,
         super(capacity, loadFactor);
     }
 
+    // The capacity is always a power of two for quadratic probing, this
+    // mode additionally switches to mask based indexing and hash spreading.
+    public HashTableQuadraticProbing(int capacity, double loadFactor, boolean powerOfTwo) {
+        super(capacity, loadFactor, powerOfTwo);
+    }
+
     // Given a number this method finds the next
     // power of two above this value.
     private static int nextPowerOfTwo(int n) {
@@ -37,6 +43,12 @@ public class HashTableQuadraticProbing<K, V> extends HashTableOpenAddressing<K,
         mCapacity = nextPowerOfTwo(mCapacity);
     }
 
+    // Decrease the capacity of the ds.hashtable to the previous power of two.
+    @Override
+    protected void decreaseCapacity() {
+        mCapacity = Integer.highestOneBit(mCapacity) >> 1;
+    }
+
     // Adjust the capacity of the ds.hashtable to be a power of two.
     @Override
     protected void adjustCapacity() {
@@ -0,0 +1,244 @@
+package ds.hashtable;
+
+import java.util.function.BiPredicate;
+
+// Robin Hood hashing is linear probing where a key being inserted steals the slot
+// of any key that sits closer to its own home slot. This keeps the probe lengths
+// of all keys close to each other, lets a lookup stop as soon as it passes a key
+// that is closer to home than the searched one, and lets remove() shift the
+// following keys back by one slot instead of leaving a TOMBSTONE behind.
+//
+// With incremental resizing the old table is only probed and drained through the
+// base class, which marks drained and removed slots as TOMBSTONE, while the keys
+// moved to the new table are placed by Robin Hood insertion.
+public class HashTableRobinHood<K, V> extends HashTableOpenAddressing<K, V> {
+
+    // The distance of the key in each slot from its home slot
+    protected int[] mDistances;
+
+    public HashTableRobinHood() {
+        super();
+        mDistances = new int[mCapacity];
+    }
+
+    public HashTableRobinHood(int capacity) {
+        super(capacity);
+        mDistances = new int[mCapacity];
+    }
+
+    public HashTableRobinHood(int capacity, double loadFactor) {
+        super(capacity, loadFactor);
+        mDistances = new int[mCapacity];
+    }
+
+    public HashTableRobinHood(int capacity, double loadFactor, boolean powerOfTwo) {
+        super(capacity, loadFactor, powerOfTwo);
+        mDistances = new int[mCapacity];
+    }
+
+    // No setup required for linear probing.
+    @Override
+    protected void setupProbing(K key) {}
+
+    // Robin Hood hashing relies on probing the very next slot, so
+    // any capacity can be used and no adjustment is needed.
+    @Override
+    protected int probe(int x) {
+        return x;
+    }
+
+    @Override
+    protected void adjustCapacity() {}
+
+    // Backward shift deletion moves keys across slot ranges, so the matching keys
+    // are replaced by TOMBSTONE in parallel, and the table is then rebuilt once at
+    // its final capacity. The markers keep the probe sequences intact in case the
+    // rebuild keeps the current table aside as the old table of an incremental resize.
+    @Override
+    public int parallelRemoveIf(BiPredicate<? super K, ? super V> filter) {
+        int removed = invokeOnSlots((start, end) -> {
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (mKeys[i] != null && filter.test(mKeys[i], mValues[i])) {
+                    mKeys[i] = TOMBSTONE;
+                    mValues[i] = null;
+                    count++;
+                }
+            }
+            return count;
+        }, Integer::sum);
+
+        if (removed > 0) {
+            mKeyCount -= removed;
+            mModificationCount++;
+            compactTable();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+        if (indexOf(key, normalizeIndex(hash(key)), true) != -1) {
+            return true;
+        }
+        return mOldKeys != null && oldTableIndexOf(key) != -1;
+    }
+
+    @Override
+    protected V getFromHome(K key, int home) {
+        int index = indexOf(key, home, true);
+        if (index != -1) {
+            return mValues[index];
+        }
+        return mOldKeys == null ? null : getFromOldTable(key);
+    }
+
+    @Override
+    protected V putFromHome(K key, V val, int home) {
+        for (int i = home, distance = 0; ; i = nextIndex(i), distance++) {
+
+            // An empty slot or a key closer to its home than we currently are means
+            // the key does not exist, and this is the slot it belongs in.
+            if (mKeys[i] == null || mDistances[i] < distance) {
+                insertFrom(i, distance, key, val);
+                mKeyCount++;
+                mModificationCount++;
+                return null;
+            }
+
+            // The key we're trying to insert already exists in the hash-table,
+            // so update its value with the most recent value.
+            if (mKeys[i].equals(key)) {
+                V oldValue = mValues[i];
+                mValues[i] = val;
+                mModificationCount++;
+                return oldValue;
+            }
+        }
+    }
+
+    // Keys drained from the old table are placed like new keys, so their
+    // distances stay valid. The key is already counted by 'keyCount'.
+    @Override
+    protected void insertMigrated(K key, V value) {
+        insertFrom(normalizeIndex(hash(key)), 0, key, value);
+    }
+
+    // Places a key-value pair known not to be in the hash-table, starting at a slot
+    // at the given distance from its home. Once it steals a slot from a key closer
+    // to its home, the evicted pair is carried forward and placed the same way.
+    private void insertFrom(int i, int distance, K key, V value) {
+        for (; ; i = nextIndex(i), distance++) {
+
+            // Current slot is empty so the carried pair can be placed here
+            if (mKeys[i] == null) {
+                mKeys[i] = key;
+                mValues[i] = value;
+                mDistances[i] = distance;
+                mUsedBuckets++;
+                return;
+            }
+
+            // The resident key is closer to its home than the carried one,
+            // so take its slot and carry the resident pair forward instead.
+            if (mDistances[i] < distance) {
+                K tmpKey = mKeys[i];
+                V tmpValue = mValues[i];
+                int tmpDistance = mDistances[i];
+
+                mKeys[i] = key;
+                mValues[i] = value;
+                mDistances[i] = distance;
+
+                key = tmpKey;
+                value = tmpValue;
+                distance = tmpDistance;
+            }
+        }
+    }
+
+    @Override
+    protected V removeFromHome(K key, int home) {
+        int index = indexOf(key, home, false);
+        if (index == -1) {
+            return null;
+        }
+
+        V oldValue = mValues[index];
+
+        // Backward shift deletion, move every following key which is not in its
+        // home slot one step back until an empty slot or a key at home is found.
+        int hole = index;
+        for (int i = nextIndex(hole); mKeys[i] != null && mDistances[i] > 0; i = nextIndex(i)) {
+            mKeys[hole] = mKeys[i];
+            mValues[hole] = mValues[i];
+            mDistances[hole] = mDistances[i] - 1;
+            hole = i;
+        }
+        mKeys[hole] = null;
+        mValues[hole] = null;
+        mDistances[hole] = 0;
+
+        mUsedBuckets--;
+        mKeyCount--;
+        mModificationCount++;
+        shrinkTable();
+        return oldValue;
+    }
+
+    // Returns the slot holding a key whose home slot is known, or -1 if the key does
+    // not exist. The probe length is recorded for lookups when statistics are enabled.
+    private int indexOf(K key, int home, boolean lookup) {
+        for (int i = home, distance = 0; ; i = nextIndex(i), distance++) {
+
+            // An empty slot or a key closer to its home than we currently are means
+            // the key would have been placed before this slot, so it does not exist.
+            if (mKeys[i] == null || mDistances[i] < distance) {
+                if (HashTableStats.ENABLED && lookup && mStats != null) mStats.recordMiss(distance + 1);
+                return -1;
+            }
+            if (mKeys[i].equals(key)) {
+                if (HashTableStats.ENABLED && lookup && mStats != null) mStats.recordHit(distance + 1);
+                return i;
+            }
+        }
+    }
+
+    // Returns the slot following index, wrapping around the end of the table
+    private int nextIndex(int index) {
+        return index + 1 == mCapacity ? 0 : index + 1;
+    }
+
+    // There are no tombstones, so a resize always grows the table. With incremental
+    // resizing the base class keeps the current table aside as the old table.
+    @Override
+    protected void rehashTable() {
+        if (mIncrementalResize) {
+            super.rehashTable();
+            mDistances = new int[mCapacity];
+            return;
+        }
+
+        mThreshold = (int) (mCapacity * mLoadFactor);
+
+        K[] oldKeyTable = mKeys;
+        V[] oldValueTable = mValues;
+        mKeys = (K[]) new Object[mCapacity];
+        mValues = (V[]) new Object[mCapacity];
+        mDistances = new int[mCapacity];
+
+        // Reset the key count and buckets used since we are about to
+        // re-insert all the keys into the hash-table.
+        mKeyCount = mUsedBuckets = 0;
+
+        for (int i = 0; i < oldKeyTable.length; i++) {
+            if (oldKeyTable[i] != null && oldKeyTable[i] != TOMBSTONE) {
+                put(oldKeyTable[i], oldValueTable[i]);
+            }
+        }
+    }
+
+}
@@ -1,19 +1,81 @@
 package ds.hashtable;
 
+import ds.tree.avltree.AVLTree;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import javax.management.ObjectName;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 
 public class HashTableSeparateChaining<K, V> implements Iterable<K> {
 
     private static final int DEFAULT_CAPACITY = 3;
     private static final double DEFAULT_LOAD_FACTOR = 0.75;
 
+    // A bucket longer than TREEIFY_THRESHOLD is converted to a balanced tree, and
+    // converted back to a list once it shrinks to UNTREEIFY_THRESHOLD entries.
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
+    // The number of buckets moved to the new table per put/remove during an incremental resize
+    private static final int MIGRATION_STEP = 8;
+
+    // The largest capacity ensureCapacity() grows to, doubling it must not overflow
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // The number of keys whose buckets are computed ahead of the lookups in the batch operations
+    private static final int BATCH_CHUNK = 64;
+
+    // Bucket ranges smaller than this are not split any further by the spliterator
+    private static final int MIN_SPLIT_BUCKETS = 1 << 10;
+
+    // A bucket converted to an AVL tree ordered by Entry.compareTo(). Entries
+    // which compare as equal are chained off the entry kept in the tree.
+    private static class TreeBin<K, V> {
+
+        final AVLTree<Entry<K, V>> tree = new AVLTree<>();
+        int size = 0;
+
+    }
+
     private final double mMaxLoadFactor;
 
-    private LinkedList<Entry<K, V>>[] mTable;
+    // Each bucket is either a chain of entries linked through Entry.next,
+    // or a tree once the bucket grew too long.
+    private Entry<K, V>[] mTable;
+    private TreeBin<K, V>[] mTrees;
     private int mCapacity = 0;
     private int mThreshold = 0;
     private int mSize = 0;
 
+    // With incremental resizing a resize only allocates the new table. The old
+    // table is kept aside and drained a few buckets per put/remove, and lookups
+    // consult both tables until it is empty. A key is never in both tables.
+    private boolean mIncrementalResize;
+    private Entry<K, V>[] mOldTable;
+    private TreeBin<K, V>[] mOldTrees;
+    private int mOldCapacity;
+    private int mMigrateIndex;
+
+    // The hashes and buckets of the current chunk of a batch operation, and while
+    // the chunk is searched the current entry of each key and the keys left
+    private final int[] mBatchHashes = new int[BATCH_CHUNK];
+    private final int[] mBatchBuckets = new int[BATCH_CHUNK];
+    private final Entry<K, V>[] mBatchEntries = (Entry<K, V>[]) new Entry<?, ?>[BATCH_CHUNK];
+    private final int[] mBatchPending = new int[BATCH_CHUNK];
+
+    // The statistics counters, null unless statistics are enabled
+    private HashTableStats.Recorder mStats;
+
+    // The MXBean the statistics are published to, null unless registered
+    private HashTableStats.Publisher mStatsPublisher;
+
     public HashTableSeparateChaining() {
         this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
     }
@@ -32,7 +94,65 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
         mMaxLoadFactor = maxLoadFactor;
         mCapacity = Math.max(DEFAULT_CAPACITY, capacity);
         mThreshold = (int) (mCapacity * maxLoadFactor);
-        mTable = new LinkedList[mCapacity];
+        mTable = (Entry<K, V>[]) new Entry<?, ?>[mCapacity];
+        mTrees = (TreeBin<K, V>[]) new TreeBin<?, ?>[mCapacity];
+    }
+
+    // Enables or disables incremental resizing, disabling it
+    // finishes any resize which is still in progress.
+    public void setIncrementalResize(boolean incrementalResize) {
+        mIncrementalResize = incrementalResize;
+        if (!incrementalResize) {
+            finishMigration();
+        }
+    }
+
+    // Enables or disables collecting statistics, disabling them drops the counters
+    public void setStatsEnabled(boolean statsEnabled) {
+        if (statsEnabled && !HashTableStats.ENABLED) {
+            throw new IllegalStateException("Statistics are disabled");
+        }
+        mStats = statsEnabled ? new HashTableStats.Recorder() : null;
+    }
+
+    // Returns a snapshot of the statistics collected so far, the longest chain is
+    // found by walking all the buckets so it's not meant to be called too often.
+    public HashTableStats stats() {
+        int maxChainLength = 0;
+        for (int i = 0; i < bucketCount(); i++) {
+            Entry<K, V>[] table = i < mCapacity ? mTable : mOldTable;
+            TreeBin<K, V>[] trees = i < mCapacity ? mTrees : mOldTrees;
+            int bucketIndex = i < mCapacity ? i : i - mCapacity;
+
+            int length = 0;
+            if (trees[bucketIndex] != null) {
+                length = trees[bucketIndex].size;
+            } else {
+                for (Entry<K, V> entry = table[bucketIndex]; entry != null; entry = entry.next) {
+                    length++;
+                }
+            }
+            maxChainLength = Math.max(maxChainLength, length);
+        }
+        return new HashTableStats(mStats, mSize, mCapacity, 0, maxChainLength);
+    }
+
+    // Enables statistics and exposes them through JMX under the given name. JMX only
+    // sees the snapshots published by publishStats() and by every resize.
+    public ObjectName registerStatsMBean(String name) {
+        if (mStats == null) {
+            setStatsEnabled(true);
+        }
+        mStatsPublisher = HashTableStats.register(name, this, stats());
+        return mStatsPublisher.objectName();
+    }
+
+    // Publishes a fresh snapshot of the statistics to the registered MXBean, to be
+    // called by the thread using the hash-table whenever JMX should see new values.
+    public void publishStats() {
+        if (mStatsPublisher != null) {
+            mStatsPublisher.publish(stats());
+        }
     }
 
     // Return the size of the hash-table
@@ -48,13 +168,19 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
     // Clear everything in the hash-table
     public void clear() {
         Arrays.fill(mTable, null);
+        Arrays.fill(mTrees, null);
+        mOldTable = null;
+        mOldTrees = null;
         mSize = 0;
     }
 
     // Check is element contained in the hash-table
     public boolean contains(K key) {
-        int bucketIndex = normalizeIndex(key.hashCode());
-        return getBucketEntry(bucketIndex, key) != null;
+        int hash = key.hashCode();
+        int bucketIndex = normalizeIndex(hash);
+        Entry<K, V> entry = getBucketEntry(bucketIndex, hash, key);
+        if (HashTableStats.ENABLED && mStats != null) recordLookup(bucketIndex, hash, key, entry != null);
+        return entry != null || getOldBucketEntry(hash, key) != null;
     }
 
     // Gets a key's values from the map and returns the value
@@ -62,8 +188,13 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
         if (key == null) {
             return null;
         }
-        int bucketIndex = normalizeIndex(key.hashCode());
-        Entry<K, V> entry = getBucketEntry(bucketIndex, key);
+        int hash = key.hashCode();
+        int bucketIndex = normalizeIndex(hash);
+        Entry<K, V> entry = getBucketEntry(bucketIndex, hash, key);
+        if (HashTableStats.ENABLED && mStats != null) recordLookup(bucketIndex, hash, key, entry != null);
+        if (entry == null) {
+            entry = getOldBucketEntry(hash, key);
+        }
         if (entry != null) {
             return entry.value;
         }
@@ -75,9 +206,9 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
         if (key == null) {
             throw new IllegalArgumentException("Null key");
         }
-        Entry<K, V> newEntry = new Entry<>(key, value);
-        int bucketIndex = normalizeIndex(newEntry.hash);
-        return insertBucketEntry(bucketIndex, newEntry);
+        int hash = key.hashCode();
+        migrateKey(hash);
+        return insertBucketEntry(normalizeIndex(hash), hash, key, value);
     }
 
     // Removes a key from the map and returns the value
@@ -85,8 +216,220 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
         if (key == null) {
             return null;
         }
-        int bucketIndex = normalizeIndex(key.hashCode());
-        return removeBucketEntry(bucketIndex, key);
+        int hash = key.hashCode();
+        migrateKey(hash);
+        return removeBucketEntry(normalizeIndex(hash), hash, key);
+    }
+
+    // Grows the hash-table up front so it can hold 'expectedSize' keys without resizing
+    public void ensureCapacity(int expectedSize) {
+        finishMigration();
+
+        int capacity = mCapacity;
+        while ((long) (capacity * mMaxLoadFactor) < expectedSize) {
+            if (capacity > MAX_CAPACITY / 2) {
+                throw new IllegalArgumentException("Illegal expectedSize: " + expectedSize);
+            }
+            capacity *= 2;
+        }
+        if (capacity != mCapacity) {
+            resizeTable(capacity);
+            finishMigration();
+        }
+    }
+
+    // Places all the key-value pairs into the hash-table. The previous value of
+    // keys[i] is stored in oldValues[i] unless oldValues is null.
+    public void putAll(K[] keys, V[] values, V[] oldValues) {
+        checkBatch(keys, values);
+        checkBatch(keys, oldValues);
+
+        ensureBatchCapacity(keys.length);
+
+        for (int start = 0; start < keys.length; start += BATCH_CHUNK) {
+            int end = Math.min(start + BATCH_CHUNK, keys.length);
+            int capacity = computeBuckets(keys, start, end);
+            searchChunk(keys, start, end);
+
+            for (int i = start; i < end; i++) {
+                // Entries are never copied, so an entry found stays valid while
+                // the earlier keys of the chunk are inserted.
+                Entry<K, V> entry = mBatchEntries[i - start];
+                V oldValue;
+                if (entry != null) {
+                    oldValue = entry.value;
+                    entry.value = values[i];
+                } else if (mCapacity == capacity && mOldTable == null) {
+                    oldValue = insertBucketEntry(mBatchBuckets[i - start], mBatchHashes[i - start], keys[i], values[i]);
+                } else {
+                    oldValue = put(keys[i], values[i]);
+                }
+                if (oldValues != null) oldValues[i] = oldValue;
+            }
+        }
+        Arrays.fill(mBatchEntries, null);
+    }
+
+    // Gets the values of all the keys, the value of keys[i] is stored in values[i]
+    public void getAll(K[] keys, V[] values) {
+        checkBatch(keys, values);
+
+        for (int start = 0; start < keys.length; start += BATCH_CHUNK) {
+            int end = Math.min(start + BATCH_CHUNK, keys.length);
+            computeBuckets(keys, start, end);
+            searchChunk(keys, start, end);
+
+            for (int i = start; i < end; i++) {
+                int hash = mBatchHashes[i - start];
+                Entry<K, V> entry = mBatchEntries[i - start];
+                if (entry == null) {
+                    entry = getOldBucketEntry(hash, keys[i]);
+                }
+                values[i] = entry == null ? null : entry.value;
+            }
+        }
+        Arrays.fill(mBatchEntries, null);
+    }
+
+    // Removes all the keys from the hash-table. The removed value of
+    // keys[i] is stored in oldValues[i] unless oldValues is null.
+    public void removeAll(K[] keys, V[] oldValues) {
+        checkBatch(keys, oldValues);
+
+        for (int start = 0; start < keys.length; start += BATCH_CHUNK) {
+            int end = Math.min(start + BATCH_CHUNK, keys.length);
+            computeBuckets(keys, start, end);
+
+            for (int i = start; i < end; i++) {
+                V oldValue;
+                if (mOldTable == null) {
+                    oldValue = removeBucketEntry(mBatchBuckets[i - start], mBatchHashes[i - start], keys[i]);
+                } else {
+                    oldValue = remove(keys[i]);
+                }
+                if (oldValues != null) oldValues[i] = oldValue;
+            }
+        }
+    }
+
+    // Computes the hashes and buckets of a chunk of keys before any bucket is
+    // searched, so the hashing of the whole chunk is done in one tight loop. Returns
+    // the capacity the buckets are valid for, a resize in the middle of the chunk
+    // invalidates them.
+    private int computeBuckets(K[] keys, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (keys[i] == null) throw new IllegalArgumentException("Null key");
+            int hash = keys[i].hashCode();
+            mBatchHashes[i - start] = hash;
+            mBatchBuckets[i - start] = normalizeIndex(hash);
+        }
+        return mCapacity;
+    }
+
+    // Searches the buckets of a chunk of keys in an interleaved order, every round
+    // moves each key still searched one entry further down its chain. The cache
+    // misses of the keys overlap instead of being paid one after the other. Stores
+    // the entry of each key in mBatchEntries, or null if the key is not in the new
+    // table. Tree buckets are searched right away.
+    private void searchChunk(K[] keys, int start, int end) {
+        int pending = 0;
+        for (int i = 0; i < end - start; i++) {
+            int bucketIndex = mBatchBuckets[i];
+            if (mTrees[bucketIndex] != null) {
+                mBatchEntries[i] = getTreeEntry(mTrees[bucketIndex], mBatchHashes[i], keys[start + i]);
+            } else {
+                mBatchEntries[i] = mTable[bucketIndex];
+                mBatchPending[pending++] = i;
+            }
+        }
+
+        while (pending > 0) {
+            int left = 0;
+            for (int p = 0; p < pending; p++) {
+                int i = mBatchPending[p];
+                Entry<K, V> entry = mBatchEntries[i];
+                if (entry != null && (entry.hash != mBatchHashes[i] || !entry.key.equals(keys[start + i]))) {
+                    mBatchEntries[i] = entry.next;
+                    mBatchPending[left++] = i;
+                }
+            }
+            pending = left;
+        }
+    }
+
+    // Sizes the hash-table once for a batch of keys which may all be new. The batch
+    // may as well only update existing keys, so the size is capped below the largest
+    // one ensureCapacity() accepts instead of rejecting the batch.
+    private void ensureBatchCapacity(int count) {
+        long limit = Math.min((long) (MAX_CAPACITY / 2 * mMaxLoadFactor), Integer.MAX_VALUE);
+        long expectedSize = Math.min((long) mSize + count, limit);
+        ensureCapacity((int) Math.max(expectedSize, Math.max(mSize, count)));
+    }
+
+    // Makes sure a result array of a batch operation can hold a value for every key
+    private static void checkBatch(Object[] keys, Object[] values) {
+        if (values != null && values.length < keys.length) {
+            throw new IllegalArgumentException("Illegal array length: " + values.length);
+        }
+    }
+
+    // Streams the key-value pairs of the hash-table as a binary snapshot, without
+    // building any intermediate collection. Read it back with readSnapshot().
+    public void writeSnapshot(DataOutput out, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        SnapshotCodec.writeHeader(out, mSize);
+        for (int i = 0; i < bucketCount(); i++) {
+            Entry<K, V>[] table = i < mCapacity ? mTable : mOldTable;
+            TreeBin<K, V>[] trees = i < mCapacity ? mTrees : mOldTrees;
+            int bucketIndex = i < mCapacity ? i : i - mCapacity;
+
+            if (trees[bucketIndex] != null) {
+                // Entries sharing a hash are chained off the entry kept in the tree
+                for (Entry<K, V> head : trees[bucketIndex].tree) {
+                    for (Entry<K, V> entry = head; entry != null; entry = entry.next) {
+                        SnapshotCodec.writeEntry(out, entry.key, entry.value, keyCodec, valueCodec);
+                    }
+                }
+            } else {
+                for (Entry<K, V> entry = table[bucketIndex]; entry != null; entry = entry.next) {
+                    SnapshotCodec.writeEntry(out, entry.key, entry.value, keyCodec, valueCodec);
+                }
+            }
+        }
+    }
+
+    // Loads the entries of a snapshot written by writeSnapshot() into the hash-table.
+    // The table is sized up front for at most MAX_PRESIZE_ENTRIES of them, beyond
+    // that it grows as usual while the entries are read.
+    public void readSnapshot(DataInput in, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        int count = SnapshotCodec.readHeader(in);
+
+        ensureCapacity(mSize + Math.min(count, SnapshotCodec.MAX_PRESIZE_ENTRIES));
+        for (int i = 0; i < count; i++) {
+            K key = keyCodec.read(in);
+            put(key, SnapshotCodec.readValue(in, valueCodec));
+        }
+    }
+
+    // Records the probe length of a lookup in a bucket of the new table. The chain
+    // is walked a second time, which only costs anything once statistics are enabled.
+    private void recordLookup(int bucketIndex, int hash, K key, boolean hit) {
+        int probes = 0;
+        if (mTrees[bucketIndex] != null) {
+            probes = mTrees[bucketIndex].tree.height();
+        } else {
+            for (Entry<K, V> entry = mTable[bucketIndex]; entry != null; entry = entry.next) {
+                probes++;
+                if (hit && entry.hash == hash && entry.key.equals(key)) {
+                    break;
+                }
+            }
+        }
+        probes = Math.max(1, probes);
+        if (hit) {
+            mStats.recordHit(probes);
+        } else {
+            mStats.recordMiss(probes);
+        }
     }
 
     // Converts a hash value to an index in the domain [0, capacity)
@@ -95,86 +438,340 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
     }
 
     // Returns a particular entry in a given bucket if it exists, returns null otherwise
-    private Entry<K, V> getBucketEntry(int bucketIndex, K key) {
+    private Entry<K, V> getBucketEntry(int bucketIndex, int hash, K key) {
         if (key == null) {
             return null;
         }
-        LinkedList<Entry<K, V>> bucket = mTable[bucketIndex];
-        if (bucket == null) {
+        return findEntry(mTable[bucketIndex], mTrees[bucketIndex], hash, key);
+    }
+
+    // Returns the entry of a key still in the old table during an incremental resize, null otherwise
+    private Entry<K, V> getOldBucketEntry(int hash, K key) {
+        if (mOldTable == null || key == null) {
             return null;
         }
-        for (Entry<K, V> entry : bucket) {
-            if (entry.key.equals(key)) {
+        int bucketIndex = (hash & 0x7FFFFFFF) % mOldCapacity;
+        return findEntry(mOldTable[bucketIndex], mOldTrees[bucketIndex], hash, key);
+    }
+
+    // Finds the entry of a key in a bucket which is either a chain or a tree
+    private Entry<K, V> findEntry(Entry<K, V> head, TreeBin<K, V> bin, int hash, K key) {
+        if (bin != null) {
+            return getTreeEntry(bin, hash, key);
+        }
+        for (Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.key.equals(key)) {
                 return entry;
             }
         }
         return null;
     }
 
-    // Inserts an entry in a given bucket only if the entry not exist, update the entry value otherwise
-    private V insertBucketEntry(int bucketIndex, Entry<K, V> entry) {
-        LinkedList<Entry<K, V>> bucket = mTable[bucketIndex];
-        if (bucket == null) {
-            mTable[bucketIndex] = bucket = new LinkedList<>();
-        }
-
-        Entry<K, V> existentEntry = getBucketEntry(bucketIndex, entry.key);
+    // Inserts an entry in a given bucket only if the entry not exist, update the entry value otherwise.
+    // The entry is only allocated when the key is new, updating a value allocates nothing.
+    private V insertBucketEntry(int bucketIndex, int hash, K key, V value) {
+        Entry<K, V> existentEntry = getBucketEntry(bucketIndex, hash, key);
         if (existentEntry == null) {
-            bucket.add(entry);
+            addBucketEntry(bucketIndex, new Entry<>(hash, key, value));
             if (++mSize > mThreshold) {
                 resizeTable();
             }
             return null;
         } else {
             V oldVal = existentEntry.value;
-            existentEntry.value = entry.value;
+            existentEntry.value = value;
             return oldVal;
         }
     }
 
+    // Adds an entry known not to exist in a given bucket, treeifying the bucket if it gets too long
+    private void addBucketEntry(int bucketIndex, Entry<K, V> entry) {
+        if (mTrees[bucketIndex] != null) {
+            addTreeEntry(mTrees[bucketIndex], entry);
+            return;
+        }
+        entry.next = mTable[bucketIndex];
+        mTable[bucketIndex] = entry;
+
+        int length = 0;
+        for (Entry<K, V> e = entry; e != null && length <= TREEIFY_THRESHOLD; e = e.next) {
+            length++;
+        }
+        if (length > TREEIFY_THRESHOLD) {
+            treeify(bucketIndex);
+        }
+    }
+
     // Removes an entry from a given bucket if it exists
-    private V removeBucketEntry(int bucketIndex, K key) {
-        Entry<K, V> entry = getBucketEntry(bucketIndex, key);
-        if (entry != null) {
-            LinkedList<Entry<K, V>> links = mTable[bucketIndex];
-            links.remove(entry);
-            --mSize;
-            return entry.value;
+    private V removeBucketEntry(int bucketIndex, int hash, K key) {
+        if (mTrees[bucketIndex] != null) {
+            return removeTreeEntry(bucketIndex, hash, key);
+        }
+        Entry<K, V> prev = null;
+        for (Entry<K, V> entry = mTable[bucketIndex]; entry != null; prev = entry, entry = entry.next) {
+            if (entry.hash == hash && entry.key.equals(key)) {
+                if (prev == null) {
+                    mTable[bucketIndex] = entry.next;
+                } else {
+                    prev.next = entry.next;
+                }
+                entry.next = null;
+                --mSize;
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    // Converts a chain bucket into a tree bucket, O(nlog(n))
+    private void treeify(int bucketIndex) {
+        TreeBin<K, V> bin = new TreeBin<>();
+        Entry<K, V> entry = mTable[bucketIndex];
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            addTreeEntry(bin, entry);
+            entry = next;
+        }
+        mTable[bucketIndex] = null;
+        mTrees[bucketIndex] = bin;
+    }
+
+    // Converts a tree bucket back into a chain bucket, O(n). The entries
+    // comparing as equal are already chained, so the chains are just joined.
+    private void untreeify(int bucketIndex) {
+        Entry<K, V> head = null;
+        for (Entry<K, V> treeEntry : mTrees[bucketIndex].tree) {
+            Entry<K, V> tail = treeEntry;
+            while (tail.next != null) {
+                tail = tail.next;
+            }
+            tail.next = head;
+            head = treeEntry;
+        }
+        mTrees[bucketIndex] = null;
+        mTable[bucketIndex] = head;
+    }
+
+    // Finds the entry of a key in a tree bucket, O(log(n))
+    private Entry<K, V> getTreeEntry(TreeBin<K, V> bin, int hash, K key) {
+        return chainEntry(findTreeHead(bin, hash, key), key);
+    }
+
+    // Finds the entry kept in the tree whose chain holds a key, O(log(n)). Keys which
+    // are not Comparable are ordered by identity among equal hashes, so an equal but
+    // distinct key is not found by the search. All their entries with the same hash
+    // are searched instead, O(log(n) + k) for k such entries like java.util.HashMap.
+    private Entry<K, V> findTreeHead(TreeBin<K, V> bin, int hash, K key) {
+        Entry<K, V> head = bin.tree.find(new Entry<>(hash, key, null));
+        if (chainEntry(head, key) != null) {
+            return head;
+        }
+        if (key instanceof Comparable) {
+            return null;
+        }
+        return bin.tree.find(entry -> Integer.compare(hash, entry.hash), entry -> chainEntry(entry, key) != null);
+    }
+
+    // Returns the entry of a key in a chain of entries, null if it's not there
+    private static <K, V> Entry<K, V> chainEntry(Entry<K, V> head, K key) {
+        for (Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            if (entry.key.equals(key)) {
+                return entry;
+            }
         }
         return null;
     }
 
-    // Resizes the internal table holding buckets of entries
+    // Adds an entry known not to exist to a tree bucket, O(log(n))
+    private void addTreeEntry(TreeBin<K, V> bin, Entry<K, V> entry) {
+        Entry<K, V> head = bin.tree.find(entry);
+        if (head == null) {
+            entry.next = null;
+            bin.tree.add(entry);
+        } else {
+            // Compares as equal to an entry of the tree, chain it after that entry
+            entry.next = head.next;
+            head.next = entry;
+        }
+        bin.size++;
+    }
+
+    // Removes the entry of a key from a tree bucket, O(log(n))
+    private V removeTreeEntry(int bucketIndex, int hash, K key) {
+        TreeBin<K, V> bin = mTrees[bucketIndex];
+        Entry<K, V> head = findTreeHead(bin, hash, key);
+
+        Entry<K, V> prev = null;
+        Entry<K, V> entry = head;
+        while (entry != null && !entry.key.equals(key)) {
+            prev = entry;
+            entry = entry.next;
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        if (prev != null) {
+            prev.next = entry.next;
+        } else {
+            // The entry kept in the tree is removed, the next
+            // entry of its chain takes its place.
+            bin.tree.remove(entry);
+            if (entry.next != null) {
+                bin.tree.add(entry.next);
+            }
+        }
+        entry.next = null;
+        bin.size--;
+        --mSize;
+
+        if (bin.size <= UNTREEIFY_THRESHOLD) {
+            untreeify(bucketIndex);
+        }
+        return entry.value;
+    }
+
+    // Returns all entries of a tree bucket
+    private List<Entry<K, V>> treeEntries(TreeBin<K, V> bin) {
+        List<Entry<K, V>> entries = new ArrayList<>(bin.size);
+        for (Entry<K, V> head : bin.tree) {
+            for (Entry<K, V> entry = head; entry != null; entry = entry.next) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    // Returns the number of buckets across the new and old table, the buckets
+    // of the old table follow the buckets of the new one.
+    private int bucketCount() {
+        return mOldTable == null ? mCapacity : mCapacity + mOldCapacity;
+    }
+
+    // Returns all entries of a bucket, or null if the bucket is empty
+    private Iterable<Entry<K, V>> bucketEntries(int bucketIndex) {
+        Entry<K, V>[] table = mTable;
+        TreeBin<K, V>[] trees = mTrees;
+        if (bucketIndex >= mCapacity) {
+            table = mOldTable;
+            trees = mOldTrees;
+            bucketIndex -= mCapacity;
+        }
+        if (trees[bucketIndex] != null) {
+            return treeEntries(trees[bucketIndex]);
+        }
+        final Entry<K, V> head = table[bucketIndex];
+        if (head == null) {
+            return null;
+        }
+        return () -> new Iterator<Entry<K, V>>() {
+
+            Entry<K, V> entry = head;
+
+            @Override
+            public boolean hasNext() {
+                return entry != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                Entry<K, V> current = entry;
+                entry = entry.next;
+                return current;
+            }
+
+        };
+    }
+
+    // Returns an iterator over the entries of a bucket, or null if the bucket is empty
+    private Iterator<Entry<K, V>> bucketIterator(int bucketIndex) {
+        Iterable<Entry<K, V>> bucket = bucketEntries(bucketIndex);
+        return bucket == null ? null : bucket.iterator();
+    }
+
+    // Doubles the internal table holding buckets of entries
     private void resizeTable() {
-        mCapacity *= 2;
+        resizeTable(mCapacity * 2);
+    }
+
+    // Resizes the internal table holding buckets of entries. With incremental
+    // resizing the entries are moved over by the following put/remove calls.
+    private void resizeTable(int capacity) {
+        // A resize can only start once the previous one is done
+        finishMigration();
+        long start = HashTableStats.ENABLED && mStats != null ? System.nanoTime() : 0;
+
+        mOldTable = mTable;
+        mOldTrees = mTrees;
+        mOldCapacity = mCapacity;
+        mMigrateIndex = 0;
+
+        mCapacity = capacity;
         mThreshold = (int) (mCapacity * mMaxLoadFactor);
+        mTable = (Entry<K, V>[]) new Entry<?, ?>[mCapacity];
+        mTrees = (TreeBin<K, V>[]) new TreeBin<?, ?>[mCapacity];
 
-        LinkedList<Entry<K, V>>[] newTable = new LinkedList[mCapacity];
+        if (!mIncrementalResize) {
+            finishMigration();
+        }
+        if (HashTableStats.ENABLED && mStats != null) mStats.recordResize(System.nanoTime() - start);
+        publishStats();
+    }
 
-        for (int i = 0; i < mTable.length; i++) {
-            if (mTable[i] != null) {
-                for (Entry<K, V> entry : mTable[i]) {
-                    int bucketIndex = normalizeIndex(entry.hash);
-                    LinkedList<Entry<K, V>> bucket = newTable[bucketIndex];
-                    if (bucket == null) {
-                        newTable[bucketIndex] = bucket = new LinkedList<>();
-                    }
-                    bucket.add(entry);
-                }
+    // Moves the old bucket of a key to the new table before the key is modified,
+    // along with the next few buckets of the old table.
+    private void migrateKey(int hash) {
+        if (mOldTable == null) {
+            return;
+        }
+        migrateBucket((hash & 0x7FFFFFFF) % mOldCapacity);
+        migrateStep();
+    }
 
-                // Avoid memory leak. Help the GC
-                mTable[i].clear();
-                mTable[i] = null;
-            }
+    // Moves the next few buckets of the old table to the new table
+    private void migrateStep() {
+        int end = Math.min(mMigrateIndex + MIGRATION_STEP, mOldCapacity);
+        for (; mMigrateIndex < end; mMigrateIndex++) {
+            migrateBucket(mMigrateIndex);
+        }
+        if (mMigrateIndex == mOldCapacity) {
+            mOldTable = null;
+            mOldTrees = null;
+        }
+    }
+
+    // Moves every bucket left in the old table to the new table
+    private void finishMigration() {
+        while (mOldTable != null) {
+            migrateStep();
         }
+    }
+
+    // Moves the entries of an old bucket to their buckets in the new table
+    private void migrateBucket(int bucketIndex) {
+        if (mOldTable[bucketIndex] != null) {
+            Entry<K, V> entry = mOldTable[bucketIndex];
+            while (entry != null) {
+                Entry<K, V> next = entry.next;
+                addBucketEntry(normalizeIndex(entry.hash), entry);
+                entry = next;
+            }
 
-        mTable = newTable;
+            // Avoid memory leak. Help the GC
+            mOldTable[bucketIndex] = null;
+        } else if (mOldTrees[bucketIndex] != null) {
+            for (Entry<K, V> entry : treeEntries(mOldTrees[bucketIndex])) {
+                addBucketEntry(normalizeIndex(entry.hash), entry);
+            }
+            mOldTrees[bucketIndex] = null;
+        }
     }
 
     // Returns the list of keys
     public List<K> keys() {
         List<K> keys = new ArrayList<>(size());
-        for (LinkedList<Entry<K, V>> bucket : mTable) {
+        for (int i = 0; i < bucketCount(); i++) {
+            Iterable<Entry<K, V>> bucket = bucketEntries(i);
             if (bucket != null) {
                 for (Entry<K, V> entry : bucket) {
                     keys.add(entry.key);
@@ -187,7 +784,8 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
     // Returns the list of values
     public List<V> values() {
         List<V> values = new ArrayList<>(size());
-        for (LinkedList<Entry<K, V>> bucket : mTable) {
+        for (int i = 0; i < bucketCount(); i++) {
+            Iterable<Entry<K, V>> bucket = bucketEntries(i);
             if (bucket != null) {
                 for (Entry<K, V> entry : bucket) {
                     values.add(entry.value);
@@ -197,13 +795,258 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
         return values;
     }
 
+    // Walks the entries of a range of buckets, see bucketCount(). Chain buckets are
+    // walked through Entry.next so only tree buckets allocate an iterator.
+    private class EntryWalker {
+
+        int nextBucket;
+        final int end;
+        Entry<K, V> entry;
+        Iterator<Entry<K, V>> treeHeads;
+
+        EntryWalker(int start, int end) {
+            nextBucket = start;
+            this.end = end;
+        }
+
+        // Returns the next entry or null once the range is exhausted
+        Entry<K, V> next() {
+            while (true) {
+                if (entry != null) {
+                    Entry<K, V> current = entry;
+                    entry = current.next;
+                    return current;
+                }
+
+                // Entries sharing a hash are chained off the entry kept in the tree
+                if (treeHeads != null && treeHeads.hasNext()) {
+                    entry = treeHeads.next();
+                    continue;
+                }
+                treeHeads = null;
+                if (nextBucket >= end) {
+                    return null;
+                }
+
+                int bucketIndex = nextBucket++;
+                Entry<K, V>[] table = mTable;
+                TreeBin<K, V>[] trees = mTrees;
+                if (bucketIndex >= mCapacity) {
+                    table = mOldTable;
+                    trees = mOldTrees;
+                    bucketIndex -= mCapacity;
+                }
+                if (trees[bucketIndex] != null) {
+                    treeHeads = trees[bucketIndex].tree.iterator();
+                } else {
+                    entry = table[bucketIndex];
+                }
+            }
+        }
+
+    }
+
+    // Performs the action for every key-value pair in a single pass over the buckets
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        final int elementCount = mSize;
+        EntryWalker walker = new EntryWalker(0, bucketCount());
+        for (Entry<K, V> entry = walker.next(); entry != null; entry = walker.next()) {
+            action.accept(entry.key, entry.value);
+            if (elementCount != mSize) throw new ConcurrentModificationException();
+        }
+    }
+
+    // Returns a cursor over the key-value pairs, see EntryCursor
+    public EntryCursor<K, V> cursor() {
+        final int elementCount = mSize;
+        final EntryWalker walker = new EntryWalker(0, bucketCount());
+
+        return new EntryCursor<K, V>() {
+            Entry<K, V> current;
+
+            @Override
+            public boolean advance() {
+                // An item was added or removed while iterating
+                if (elementCount != mSize) throw new ConcurrentModificationException();
+                current = walker.next();
+                return current != null;
+            }
+
+            @Override
+            public K key() {
+                return current.key;
+            }
+
+            @Override
+            public V value() {
+                return current.value;
+            }
+        };
+    }
+
+    // Performs the action for every key-value pair in parallel on the common
+    // ForkJoinPool, the action may be called from many threads at once.
+    public void parallelForEach(BiConsumer<? super K, ? super V> action) {
+        final int elementCount = mSize;
+        invokeOnBuckets((start, end) -> {
+            EntryWalker walker = new EntryWalker(start, end);
+            for (Entry<K, V> entry = walker.next(); entry != null; entry = walker.next()) {
+                action.accept(entry.key, entry.value);
+            }
+            return null;
+        }, (a, b) -> null);
+        if (elementCount != mSize) throw new ConcurrentModificationException();
+    }
+
+    // Transforms every key-value pair and combines the non-null results in parallel.
+    // Returns null if the hash-table is empty or all the results are null.
+    public <U> U parallelReduce(BiFunction<? super K, ? super V, ? extends U> transformer, BinaryOperator<U> reducer) {
+        final int elementCount = mSize;
+        U result = invokeOnBuckets((start, end) -> {
+            U partial = null;
+            EntryWalker walker = new EntryWalker(start, end);
+            for (Entry<K, V> entry = walker.next(); entry != null; entry = walker.next()) {
+                U value = transformer.apply(entry.key, entry.value);
+                if (value != null) partial = partial == null ? value : reducer.apply(partial, value);
+            }
+            return partial;
+        }, reducer);
+        if (elementCount != mSize) throw new ConcurrentModificationException();
+        return result;
+    }
+
+    // Removes every key-value pair matching the filter in parallel and returns the
+    // number of removed pairs. Each range of buckets is only written by a single task.
+    public int parallelRemoveIf(BiPredicate<? super K, ? super V> filter) {
+        int removed = invokeOnBuckets((start, end) -> {
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                count += mTrees[i] != null ? removeTreeEntriesIf(i, filter) : removeChainEntriesIf(i, filter);
+            }
+            return count;
+        }, Integer::sum);
+        mSize -= removed;
+        return removed;
+    }
+
+    // Unlinks the entries of a chain bucket matching the filter
+    private int removeChainEntriesIf(int bucketIndex, BiPredicate<? super K, ? super V> filter) {
+        int count = 0;
+        Entry<K, V> prev = null;
+        Entry<K, V> entry = mTable[bucketIndex];
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            if (filter.test(entry.key, entry.value)) {
+                if (prev == null) {
+                    mTable[bucketIndex] = next;
+                } else {
+                    prev.next = next;
+                }
+                entry.next = null;
+                count++;
+            } else {
+                prev = entry;
+            }
+            entry = next;
+        }
+        return count;
+    }
+
+    // Rebuilds a tree bucket from the entries not matching the filter. Each bucket
+    // is only touched by one range, so buckets can be done in parallel.
+    private int removeTreeEntriesIf(int bucketIndex, BiPredicate<? super K, ? super V> filter) {
+        List<Entry<K, V>> entries = treeEntries(mTrees[bucketIndex]);
+        mTrees[bucketIndex] = null;
+
+        int count = 0;
+        for (Entry<K, V> entry : entries) {
+            if (filter.test(entry.key, entry.value)) {
+                entry.next = null;
+                count++;
+            } else {
+                addBucketEntry(bucketIndex, entry);
+            }
+        }
+        return count;
+    }
+
+    // Applies the function to ranges of buckets on the common ForkJoinPool and combines
+    // the non-null results. Any incremental resize is finished first so all the entries
+    // are in a single table. Returns null if every range returned null.
+    private <U> U invokeOnBuckets(RangeTask.RangeFunction<U> function, BinaryOperator<U> combiner) {
+        finishMigration();
+        return RangeTask.invoke(mCapacity, MIN_SPLIT_BUCKETS, function, combiner);
+    }
+
+    // Returns a spliterator over the keys which splits the buckets into ranges
+    @Override
+    public Spliterator<K> spliterator() {
+        return new BucketSpliterator(0, bucketCount(), mSize);
+    }
+
+    // Traverses the keys of a range of buckets
+    private class BucketSpliterator implements Spliterator<K> {
+
+        private final EntryWalker mWalker;
+        private final int mElementCount;
+
+        BucketSpliterator(int start, int end, int elementCount) {
+            mWalker = new EntryWalker(start, end);
+            mElementCount = elementCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super K> action) {
+            Entry<K, V> entry = mWalker.next();
+            if (entry == null) {
+                return false;
+            }
+            action.accept(entry.key);
+            if (mElementCount != mSize) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super K> action) {
+            for (Entry<K, V> entry = mWalker.next(); entry != null; entry = mWalker.next()) {
+                action.accept(entry.key);
+            }
+            if (mElementCount != mSize) throw new ConcurrentModificationException();
+        }
+
+        // Splits off the first half of the buckets not started yet
+        @Override
+        public Spliterator<K> trySplit() {
+            int start = mWalker.nextBucket;
+            int mid = (start + mWalker.end) >>> 1;
+            if (mid - start < MIN_SPLIT_BUCKETS) {
+                return null;
+            }
+            mWalker.nextBucket = mid;
+            return new BucketSpliterator(start, mid, mElementCount);
+        }
+
+        // Assumes the entries are spread evenly over the buckets
+        @Override
+        public long estimateSize() {
+            int bucketCount = bucketCount();
+            return bucketCount == 0 ? 0 : (long) mSize * (mWalker.end - mWalker.nextBucket) / bucketCount;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+    }
+
     @Override
     public Iterator<K> iterator() {
         final int elementCount = size();
         return new Iterator<K>() {
 
             int bucketIndex = 0;
-            Iterator<Entry<K, V>> bucketIter = (mTable[0] == null) ? null : mTable[0].iterator();
+            Iterator<Entry<K, V>> bucketIter = bucketIterator(0);
 
             @Override
             public boolean hasNext() {
@@ -215,19 +1058,16 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
                 if (bucketIter == null || !bucketIter.hasNext()) {
 
                     // Search next buckets until a valid iterator is found
-                    while (++bucketIndex < mCapacity) {
-                        if (mTable[bucketIndex] != null) {
-
-                            // Make sure this iterator actually has elements -_-
-                            Iterator<Entry<K, V>> nextIter = mTable[bucketIndex].iterator();
-                            if (nextIter.hasNext()) {
-                                bucketIter = nextIter;
-                                break;
-                            }
+                    while (++bucketIndex < bucketCount()) {
+                        // Make sure this iterator actually has elements -_-
+                        Iterator<Entry<K, V>> nextIter = bucketIterator(bucketIndex);
+                        if (nextIter != null && nextIter.hasNext()) {
+                            bucketIter = nextIter;
+                            break;
                         }
                     }
                 }
-                return bucketIndex < mCapacity;
+                return bucketIndex < bucketCount();
             }
 
             @Override
@@ -247,11 +1087,12 @@ public class HashTableSeparateChaining<K, V> implements Iterable<K> {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("{");
-        for (int i = 0; i < mCapacity; i++) {
-            if (mTable[i] == null) {
+        for (int i = 0; i < bucketCount(); i++) {
+            Iterable<Entry<K, V>> bucket = bucketEntries(i);
+            if (bucket == null) {
                 continue;
             }
-            for (Entry<K, V> entry : mTable[i]) {
+            for (Entry<K, V> entry : bucket) {
                 sb.append(entry + ", ");
             }
         }
@@ -0,0 +1,249 @@
+package ds.hashtable;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+// A snapshot of the statistics of a hash-table. The tables only collect statistics
+// once they are enabled per instance, and the whole instrumentation can be turned
+// off with -Dds.hashtable.stats=false. ENABLED is then a constant false which lets
+// the JIT drop the instrumentation from the hot paths altogether.
+//
+// The probe histograms are logarithmic, bucket i counts the lookups which took
+// [2^i, 2^(i+1)) probes. For separate chaining a probe is an entry compared in a
+// chain, a lookup in a treeified bucket counts as many probes as the tree height.
+public final class HashTableStats implements HashTableStatsMXBean {
+
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("ds.hashtable.stats", "true"));
+
+    private static final int HISTOGRAM_SIZE = 32;
+
+    // The counters updated by a hash-table while it runs
+    static final class Recorder {
+
+        final long[] hitProbes = new long[HISTOGRAM_SIZE];
+        final long[] missProbes = new long[HISTOGRAM_SIZE];
+        int maxProbes;
+        int resizeCount;
+        long resizeNanos;
+        long lazyRelocations;
+
+        void recordHit(int probes) {
+            hitProbes[31 - Integer.numberOfLeadingZeros(probes)]++;
+            if (probes > maxProbes) maxProbes = probes;
+        }
+
+        void recordMiss(int probes) {
+            missProbes[31 - Integer.numberOfLeadingZeros(probes)]++;
+            if (probes > maxProbes) maxProbes = probes;
+        }
+
+        void recordResize(long nanos) {
+            resizeCount++;
+            resizeNanos += nanos;
+        }
+
+        void recordLazyRelocation() {
+            lazyRelocations++;
+        }
+
+    }
+
+    private final int mSize;
+    private final int mCapacity;
+    private final int mTombstoneCount;
+    private final int mMaxChainLength;
+    private final int mResizeCount;
+    private final long mResizeTimeNanos;
+    private final long mLazyRelocationCount;
+    private final long[] mHitProbeHistogram;
+    private final long[] mMissProbeHistogram;
+
+    HashTableStats(Recorder recorder, int size, int capacity, int tombstoneCount, int maxChainLength) {
+        if (recorder == null) {
+            recorder = new Recorder();
+        }
+        mSize = size;
+        mCapacity = capacity;
+        mTombstoneCount = tombstoneCount;
+        mMaxChainLength = maxChainLength;
+        mResizeCount = recorder.resizeCount;
+        mResizeTimeNanos = recorder.resizeNanos;
+        mLazyRelocationCount = recorder.lazyRelocations;
+        mHitProbeHistogram = recorder.hitProbes.clone();
+        mMissProbeHistogram = recorder.missProbes.clone();
+    }
+
+    // Registers an MXBean named 'ds.hashtable:type=HashTableStats,name=<name>' which
+    // serves the snapshots published by the thread owning the source hash-table.
+    static Publisher register(String name, Object source, HashTableStats snapshot) {
+        try {
+            ObjectName objectName = new ObjectName("ds.hashtable:type=HashTableStats,name=" + ObjectName.quote(name));
+            Publisher publisher = new Publisher(objectName, source, snapshot);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(publisher, objectName);
+            return publisher;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + name, e);
+        }
+    }
+
+    // Removes an MXBean added by register()
+    public static void unregister(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + objectName, e);
+        }
+    }
+
+    // The MXBean registered with JMX. The hash-tables are not thread-safe, so the JMX
+    // threads never call into them and only read the latest snapshot published by the
+    // owning thread. The hash-table is held weakly, once it's garbage collected the
+    // MXBean unregisters itself on the next read.
+    static final class Publisher implements HashTableStatsMXBean {
+
+        private final ObjectName mObjectName;
+        private final WeakReference<Object> mSource;
+        private volatile HashTableStats mSnapshot;
+
+        private Publisher(ObjectName objectName, Object source, HashTableStats snapshot) {
+            mObjectName = objectName;
+            mSource = new WeakReference<>(source);
+            mSnapshot = snapshot;
+        }
+
+        ObjectName objectName() {
+            return mObjectName;
+        }
+
+        // Replaces the snapshot served to JMX, called by the thread owning the hash-table
+        void publish(HashTableStats snapshot) {
+            mSnapshot = snapshot;
+        }
+
+        private HashTableStats snapshot() {
+            if (mSource.get() == null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(mObjectName);
+                } catch (JMException e) {
+                    // Already unregistered by another read or by unregister()
+                }
+            }
+            return mSnapshot;
+        }
+
+        @Override
+        public int getSize() {
+            return snapshot().getSize();
+        }
+
+        @Override
+        public int getCapacity() {
+            return snapshot().getCapacity();
+        }
+
+        @Override
+        public int getTombstoneCount() {
+            return snapshot().getTombstoneCount();
+        }
+
+        @Override
+        public int getMaxChainLength() {
+            return snapshot().getMaxChainLength();
+        }
+
+        @Override
+        public int getResizeCount() {
+            return snapshot().getResizeCount();
+        }
+
+        @Override
+        public long getResizeTimeNanos() {
+            return snapshot().getResizeTimeNanos();
+        }
+
+        @Override
+        public long getLazyRelocationCount() {
+            return snapshot().getLazyRelocationCount();
+        }
+
+        @Override
+        public long[] getHitProbeHistogram() {
+            return snapshot().getHitProbeHistogram();
+        }
+
+        @Override
+        public long[] getMissProbeHistogram() {
+            return snapshot().getMissProbeHistogram();
+        }
+
+    }
+
+    @Override
+    public int getSize() {
+        return mSize;
+    }
+
+    @Override
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    // Slots marked as deleted, always 0 for tables without tombstones
+    @Override
+    public int getTombstoneCount() {
+        return mTombstoneCount;
+    }
+
+    // The longest chain for separate chaining, the longest
+    // probe sequence seen by a lookup for open addressing.
+    @Override
+    public int getMaxChainLength() {
+        return mMaxChainLength;
+    }
+
+    @Override
+    public int getResizeCount() {
+        return mResizeCount;
+    }
+
+    @Override
+    public long getResizeTimeNanos() {
+        return mResizeTimeNanos;
+    }
+
+    // Keys moved to an earlier deleted slot by get() or contains()
+    @Override
+    public long getLazyRelocationCount() {
+        return mLazyRelocationCount;
+    }
+
+    @Override
+    public long[] getHitProbeHistogram() {
+        return mHitProbeHistogram.clone();
+    }
+
+    @Override
+    public long[] getMissProbeHistogram() {
+        return mMissProbeHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "HashTableStats{size=" + mSize + ", capacity=" + mCapacity + ", tombstones=" + mTombstoneCount
+                + ", maxChainLength=" + mMaxChainLength + ", resizes=" + mResizeCount
+                + ", resizeTimeNanos=" + mResizeTimeNanos + ", lazyRelocations=" + mLazyRelocationCount
+                + ", hitProbes=" + histogramString(mHitProbeHistogram)
+                + ", missProbes=" + histogramString(mMissProbeHistogram) + "}";
+    }
+
+    // Prints the histogram up to its last non-empty bucket
+    private static String histogramString(long[] histogram) {
+        int length = histogram.length;
+        while (length > 0 && histogram[length - 1] == 0) length--;
+        return Arrays.toString(Arrays.copyOf(histogram, length));
+    }
+
+}
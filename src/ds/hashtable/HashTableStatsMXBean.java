@@ -0,0 +1,24 @@
+package ds.hashtable;
+
+// The statistics of a hash-table exposed through JMX, see HashTableStats.register()
+public interface HashTableStatsMXBean {
+
+    int getSize();
+
+    int getCapacity();
+
+    int getTombstoneCount();
+
+    int getMaxChainLength();
+
+    int getResizeCount();
+
+    long getResizeTimeNanos();
+
+    long getLazyRelocationCount();
+
+    long[] getHitProbeHistogram();
+
+    long[] getMissProbeHistogram();
+
+}
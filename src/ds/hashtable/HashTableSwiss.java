@@ -0,0 +1,341 @@
+package ds.hashtable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+// An open addressing hash-table modeled on Swiss tables. Every slot has a control
+// byte holding either EMPTY, DELETED or the low 7 bits of the key hash. The control
+// bytes are probed a group of 8 at a time, read as a single long and matched with
+// SWAR (SIMD within a register) arithmetic, so the key array is only touched for
+// slots whose 7 hash bits match. Most misses never look at a key at all.
+public class HashTableSwiss<K, V> implements Iterable<K> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.875;
+
+    // The number of control bytes probed at once
+    private static final int GROUP_SIZE = 8;
+
+    // Control byte values, a full slot holds its 7 bit hash fragment (0..127)
+    private static final byte EMPTY = (byte) 0x80;
+    private static final byte DELETED = (byte) 0xFE;
+
+    // Constants used by the SWAR matching, the lowest and highest bit of every byte
+    private static final long LSB = 0x0101010101010101L;
+    private static final long MSB = 0x8080808080808080L;
+
+    // Reads 8 control bytes as a single long, byte i of the group is bits [8i, 8i+8)
+    private static final VarHandle GROUP = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final double mLoadFactor;
+    private int mCapacity;
+    private int mThreshold;
+    private int mModificationCount;
+
+    // 'keyCount' tracks the number of keys inside the hash-table, while
+    // 'deletedCount' tracks slots marked as DELETED which still count
+    // towards the load of the hash-table until the next rehash.
+    private int mKeyCount;
+    private int mDeletedCount;
+
+    private byte[] mControls;
+    private K[] mKeys;
+    private V[] mValues;
+
+    public HashTableSwiss() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public HashTableSwiss(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public HashTableSwiss(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal loadFactor: " + loadFactor);
+        }
+        mLoadFactor = loadFactor;
+        allocate(capacityFor(capacity));
+    }
+
+    // Returns a power of two number of slots, at least one group, holding the capacity
+    private static int capacityFor(int capacity) {
+        capacity = Math.max(DEFAULT_CAPACITY, capacity);
+        int pow2 = Integer.highestOneBit(capacity);
+        return pow2 == capacity ? pow2 : pow2 << 1;
+    }
+
+    private void allocate(int capacity) {
+        mCapacity = capacity;
+        mThreshold = (int) (capacity * mLoadFactor);
+        mControls = new byte[capacity];
+        Arrays.fill(mControls, EMPTY);
+        mKeys = (K[]) new Object[capacity];
+        mValues = (V[]) new Object[capacity];
+        mKeyCount = mDeletedCount = 0;
+    }
+
+    // Return the size of the hash-table
+    public int size() {
+        return mKeyCount;
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return mKeyCount == 0;
+    }
+
+    // Clear everything in the hash-table
+    public void clear() {
+        Arrays.fill(mControls, EMPTY);
+        Arrays.fill(mKeys, null);
+        Arrays.fill(mValues, null);
+        mKeyCount = mDeletedCount = 0;
+        mModificationCount++;
+    }
+
+    // Check is element contained in the hash-table
+    public boolean contains(K key) {
+        return indexOf(key) != -1;
+    }
+
+    // Get the value associated with the input key.
+    // NOTE: returns null if the value is null AND also returns
+    // null if the key does not exists.
+    public V get(K key) {
+        int index = indexOf(key);
+        return index == -1 ? null : mValues[index];
+    }
+
+    // Place a key-value pair into the hash-table. If the value already
+    // exists inside the hash-table then the value is updated
+    public V put(K key, V value) {
+        int index = indexOf(key);
+        if (index != -1) {
+            V oldValue = mValues[index];
+            mValues[index] = value;
+            mModificationCount++;
+            return oldValue;
+        }
+
+        if (mKeyCount + mDeletedCount >= mThreshold) {
+            resizeTable();
+        }
+        insertNew(hash(key), key, value);
+        mModificationCount++;
+        return null;
+    }
+
+    // Removes a key from the map and returns the value.
+    // NOTE: returns null if the value is null AND also returns
+    // null if the key does not exist
+    public V remove(K key) {
+        int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+
+        // A lookup only moves on to the next group when the current group has no
+        // EMPTY slot. If this group still has one, no probe sequence ever went
+        // past it and the slot can become EMPTY again instead of DELETED.
+        int groupStart = index & -GROUP_SIZE;
+        if (matchEmpty(group(groupStart)) != 0) {
+            mControls[index] = EMPTY;
+        } else {
+            mControls[index] = DELETED;
+            mDeletedCount++;
+        }
+
+        V oldValue = mValues[index];
+        mKeys[index] = null;
+        mValues[index] = null;
+        mKeyCount--;
+        mModificationCount++;
+        return oldValue;
+    }
+
+    // Returns the slot holding the key, or -1 if the key does not exist
+    private int indexOf(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null key");
+        }
+
+        int hash = hash(key);
+        byte fragment = fragment(hash);
+        int groupMask = mCapacity / GROUP_SIZE - 1;
+
+        // Probe the groups with triangular numbers, which visits every group
+        // of a power of two sized table exactly once.
+        for (int g = groupIndex(hash) & groupMask, x = 1; ; g = (g + x++) & groupMask) {
+            int groupStart = g * GROUP_SIZE;
+            long group = group(groupStart);
+
+            // Only slots whose hash fragment matches need their key compared
+            for (long match = matchFragment(group, fragment); match != 0; match &= match - 1) {
+                int index = groupStart + (Long.numberOfTrailingZeros(match) >>> 3);
+                if (mControls[index] == fragment && key.equals(mKeys[index])) {
+                    return index;
+                }
+            }
+
+            // An EMPTY slot in the group means the key would have been placed here
+            if (matchEmpty(group) != 0) {
+                return -1;
+            }
+        }
+    }
+
+    // Places a key which is known not to be in the hash-table in the
+    // first EMPTY or DELETED slot of its probe sequence.
+    private void insertNew(int hash, K key, V value) {
+        int groupMask = mCapacity / GROUP_SIZE - 1;
+
+        for (int g = groupIndex(hash) & groupMask, x = 1; ; g = (g + x++) & groupMask) {
+            int groupStart = g * GROUP_SIZE;
+            long match = matchEmptyOrDeleted(group(groupStart));
+            if (match != 0) {
+                int index = groupStart + (Long.numberOfTrailingZeros(match) >>> 3);
+                if (mControls[index] == DELETED) {
+                    mDeletedCount--;
+                }
+                mControls[index] = fragment(hash);
+                mKeys[index] = key;
+                mValues[index] = value;
+                mKeyCount++;
+                return;
+            }
+        }
+    }
+
+    // Grows the hash-table, or only rehashes it at the same capacity when
+    // most of the load comes from DELETED slots rather than live keys.
+    private void resizeTable() {
+        int capacity = mKeyCount >= mThreshold / 2 ? mCapacity * 2 : mCapacity;
+
+        byte[] oldControls = mControls;
+        K[] oldKeys = mKeys;
+        V[] oldValues = mValues;
+        allocate(capacity);
+
+        for (int i = 0; i < oldControls.length; i++) {
+            if (oldControls[i] >= 0) {
+                insertNew(hash(oldKeys[i]), oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // Spreads the key hash so both the group index and the fragment are well mixed
+    private static int hash(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    // The high 25 bits of the hash select the group to start probing at
+    private static int groupIndex(int hash) {
+        return hash >>> 7;
+    }
+
+    // The low 7 bits of the hash are stored in the control byte of a full slot
+    private static byte fragment(int hash) {
+        return (byte) (hash & 0x7F);
+    }
+
+    // Reads the 8 control bytes of a group
+    private long group(int groupStart) {
+        return (long) GROUP.get(mControls, groupStart);
+    }
+
+    // Returns a mask with the high bit set in every byte equal to the fragment.
+    // It may report a false positive right after a true match, so the control
+    // byte is checked again before comparing keys.
+    private static long matchFragment(long group, byte fragment) {
+        long x = group ^ (LSB * fragment);
+        return (x - LSB) & ~x & MSB;
+    }
+
+    // Returns a mask with the high bit set in every EMPTY byte (0b10000000)
+    private static long matchEmpty(long group) {
+        return group & ~(group << 6) & MSB;
+    }
+
+    // Returns a mask with the high bit set in every EMPTY or DELETED byte
+    private static long matchEmptyOrDeleted(long group) {
+        return group & MSB;
+    }
+
+    // Returns a list of keys found in the hash table
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>(size());
+        for (int i = 0; i < mCapacity; i++) {
+            if (mControls[i] >= 0) {
+                keys.add(mKeys[i]);
+            }
+        }
+        return keys;
+    }
+
+    // Returns a list of non-unique values found in the hash table
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (int i = 0; i < mCapacity; i++) {
+            if (mControls[i] >= 0) {
+                values.add(mValues[i]);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        // Before the iteration begins record the number of modifications
+        // done to the hash-table. This value should not change as we iterate
+        // otherwise a concurrent modification has occurred :0
+        final int MODIFICATION_COUNT = mModificationCount;
+
+        return new Iterator<K>() {
+            int index, keysLeft = mKeyCount;
+
+            @Override
+            public boolean hasNext() {
+                // The contents of the table have been altered
+                if (MODIFICATION_COUNT != mModificationCount) throw new ConcurrentModificationException();
+                return keysLeft != 0;
+            }
+
+            // Find the next element and return it
+            @Override
+            public K next() {
+                while (mControls[index] < 0) index++;
+                keysLeft--;
+                return mKeys[index++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{");
+        for (int i = 0; i < mCapacity; i++)
+            if (mControls[i] >= 0) sb.append(mKeys[i] + " => " + mValues[i] + ", ");
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,322 @@
+package ds.hashtable;
+
+import java.util.Arrays;
+
+// An open addressing hash-table mapping primitive int keys to int values. It
+// follows the same probing scheme as HashTableOpenAddressing, but the slots are
+// plain int arrays so nothing is boxed on get/put/remove.
+public class IntIntMap {
+
+    private static final int DEFAULT_CAPACITY = 7;
+    private static final double DEFAULT_LOAD_FACTOR = 0.65;
+
+    // This is the linear constant used in the linear probing, the table capacity
+    // will be adjusted so that the GCD(capacity, LINEAR_CONSTANT) = 1.
+    private static final int LINEAR_CONSTANT = 17;
+
+    // Sentinel keys used to mark an empty slot and a deleted slot. Since a real
+    // key may be equal to one of them, those two keys are stored outside of the
+    // slot arrays in dedicated fields.
+    protected static final int FREE_KEY = 0;
+    protected static final int REMOVED_KEY = Integer.MIN_VALUE;
+
+    protected double mLoadFactor;
+    protected int mCapacity;
+    protected int mThreshold;
+    protected int mModificationCount;
+
+    // 'usedBuckets' counts the total number of used slots inside the
+    // slot arrays (includes slots marked as deleted). While 'keyCount'
+    // tracks the number of unique keys currently inside the hash-table.
+    protected int mUsedBuckets;
+    protected int mKeyCount;
+
+    // These arrays store the key-value pairs.
+    protected int[] mKeys;
+    protected int[] mValues;
+
+    // The value returned by get/put/remove when a key does not exist
+    protected final int mNoEntryValue;
+
+    // The key-value pairs whose key collides with a sentinel
+    private boolean mHasFreeKey;
+    private int mFreeKeyValue;
+    private boolean mHasRemovedKey;
+    private int mRemovedKeyValue;
+
+    public IntIntMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public IntIntMap(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public IntIntMap(int capacity, double loadFactor) {
+        this(capacity, loadFactor, 0);
+    }
+
+    public IntIntMap(int capacity, double loadFactor, int noEntryValue) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+
+        if (loadFactor <= 0 || Double.isNaN(loadFactor) || Double.isInfinite(loadFactor)) {
+            throw new IllegalArgumentException("Illegal loadFactor: " + loadFactor);
+        }
+
+        mLoadFactor = loadFactor;
+        mNoEntryValue = noEntryValue;
+        mCapacity = Math.max(DEFAULT_CAPACITY, capacity);
+        adjustCapacity();
+        mThreshold = (int) (mCapacity * loadFactor);
+
+        mKeys = new int[mCapacity];
+        mValues = new int[mCapacity];
+    }
+
+    // These three methods dictate how the probing occurs, exactly like in
+    // HashTableOpenAddressing. By default linear probing is used.
+    protected void setupProbing(int key) {}
+
+    protected int probe(int x) {
+        return LINEAR_CONSTANT * x;
+    }
+
+    // Adjust the capacity so that the linear constant and
+    // the table capacity are relatively prime.
+    protected void adjustCapacity() {
+        while (gcd(LINEAR_CONSTANT, mCapacity) != 1) {
+            mCapacity++;
+        }
+    }
+
+    // Returns the value get/put/remove return when a key does not exist
+    public int getNoEntryValue() {
+        return mNoEntryValue;
+    }
+
+    // Return the size of the hash-table
+    public int size() {
+        return mKeyCount;
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return mKeyCount == 0;
+    }
+
+    // Clear everything in the hash-table
+    public void clear() {
+        Arrays.fill(mKeys, FREE_KEY);
+        mHasFreeKey = mHasRemovedKey = false;
+        mKeyCount = mUsedBuckets = 0;
+        mModificationCount++;
+    }
+
+    // Check is key contained in the hash-table
+    public boolean contains(int key) {
+        if (key == FREE_KEY) return mHasFreeKey;
+        if (key == REMOVED_KEY) return mHasRemovedKey;
+        return indexOf(key) != -1;
+    }
+
+    // Get the value associated with the input key, or the
+    // no entry value if the key does not exist.
+    public int get(int key) {
+        if (key == FREE_KEY) return mHasFreeKey ? mFreeKeyValue : mNoEntryValue;
+        if (key == REMOVED_KEY) return mHasRemovedKey ? mRemovedKeyValue : mNoEntryValue;
+
+        int index = indexOf(key);
+        return index == -1 ? mNoEntryValue : mValues[index];
+    }
+
+    // Place a key-value pair into the hash-table. If the key already exists
+    // the value is updated and the previous value is returned.
+    public int put(int key, int value) {
+        if (key == FREE_KEY) {
+            int oldValue = mHasFreeKey ? mFreeKeyValue : mNoEntryValue;
+            if (!mHasFreeKey) mKeyCount++;
+            mHasFreeKey = true;
+            mFreeKeyValue = value;
+            mModificationCount++;
+            return oldValue;
+        }
+        if (key == REMOVED_KEY) {
+            int oldValue = mHasRemovedKey ? mRemovedKeyValue : mNoEntryValue;
+            if (!mHasRemovedKey) mKeyCount++;
+            mHasRemovedKey = true;
+            mRemovedKeyValue = value;
+            mModificationCount++;
+            return oldValue;
+        }
+        if (mUsedBuckets >= mThreshold) {
+            resizeTable();
+        }
+
+        setupProbing(key);
+        final int offset = normalizeIndex(key);
+
+        for (int i = offset, j = -1, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
+
+            // The current slot was previously deleted
+            if (mKeys[i] == REMOVED_KEY) {
+                if (j == -1) j = i;
+
+                // The key we're trying to insert already exists in the hash-table,
+                // so update its value with the most recent value
+            } else if (mKeys[i] == key) {
+                int oldValue = mValues[i];
+                if (j == -1) {
+                    mValues[i] = value;
+                } else {
+                    mKeys[i] = REMOVED_KEY;
+                    mKeys[j] = key;
+                    mValues[j] = value;
+                }
+                mModificationCount++;
+                return oldValue;
+
+                // Current slot is free so an insertion can occur, preferably
+                // in the first deleted slot encountered along the way.
+            } else if (mKeys[i] == FREE_KEY) {
+                if (j == -1) {
+                    mUsedBuckets++;
+                    j = i;
+                }
+                mKeyCount++;
+                mKeys[j] = key;
+                mValues[j] = value;
+                mModificationCount++;
+                return mNoEntryValue;
+            }
+        }
+    }
+
+    // Removes a key from the map and returns the value, or
+    // the no entry value if the key does not exist.
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!mHasFreeKey) return mNoEntryValue;
+            mHasFreeKey = false;
+            mKeyCount--;
+            mModificationCount++;
+            return mFreeKeyValue;
+        }
+        if (key == REMOVED_KEY) {
+            if (!mHasRemovedKey) return mNoEntryValue;
+            mHasRemovedKey = false;
+            mKeyCount--;
+            mModificationCount++;
+            return mRemovedKeyValue;
+        }
+
+        int index = indexOf(key);
+        if (index == -1) return mNoEntryValue;
+
+        mKeyCount--;
+        mModificationCount++;
+        mKeys[index] = REMOVED_KEY;
+        return mValues[index];
+    }
+
+    // Returns the slot holding the key, or -1 if the key does not exist.
+    // The key must not be one of the sentinels.
+    private int indexOf(int key) {
+        setupProbing(key);
+        final int offset = normalizeIndex(key);
+
+        // Starting at the original hash probe until we find a slot where our
+        // key is or we hit a free slot in which case our key does not exist.
+        for (int i = offset, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
+            if (mKeys[i] == key) return i;
+            if (mKeys[i] == FREE_KEY) return -1;
+        }
+    }
+
+    // Converts a hash value to an index. Essentially, this strips the
+    // negative sign and places the hash value in the domain [0, capacity)
+    protected int normalizeIndex(int keyHash) {
+        return (keyHash & 0x7FFFFFFF) % mCapacity;
+    }
+
+    // Finds the greatest common denominator of a and b.
+    protected int gcd(int a, int b) {
+        if (b == 0) {
+            return a;
+        }
+        return gcd(b, a % b);
+    }
+
+    // Increases the capacity of the hash table.
+    protected void increaseCapacity() {
+        mCapacity = (2 * mCapacity) + 1;
+    }
+
+    // Double the size of the hash-table
+    protected void resizeTable() {
+        increaseCapacity();
+        adjustCapacity();
+
+        mThreshold = (int) (mCapacity * mLoadFactor);
+
+        int[] oldKeyTable = mKeys;
+        int[] oldValueTable = mValues;
+        mKeys = new int[mCapacity];
+        mValues = new int[mCapacity];
+
+        // Reset the key count and buckets used since we are about to re-insert
+        // all the keys into the hash-table. Only the sentinel keys stay counted.
+        mKeyCount = (mHasFreeKey ? 1 : 0) + (mHasRemovedKey ? 1 : 0);
+        mUsedBuckets = 0;
+
+        for (int i = 0; i < oldKeyTable.length; i++) {
+            if (oldKeyTable[i] != FREE_KEY && oldKeyTable[i] != REMOVED_KEY) {
+                put(oldKeyTable[i], oldValueTable[i]);
+            }
+        }
+    }
+
+    // Returns the keys found in the hash table
+    public int[] keys() {
+        int[] keys = new int[size()];
+        int index = 0;
+        if (mHasFreeKey) keys[index++] = FREE_KEY;
+        if (mHasRemovedKey) keys[index++] = REMOVED_KEY;
+        for (int i = 0; i < mCapacity; i++) {
+            if (mKeys[i] != FREE_KEY && mKeys[i] != REMOVED_KEY) {
+                keys[index++] = mKeys[i];
+            }
+        }
+        return keys;
+    }
+
+    // Returns the non-unique values found in the hash table, in the same order as keys()
+    public int[] values() {
+        int[] values = new int[size()];
+        int index = 0;
+        if (mHasFreeKey) values[index++] = mFreeKeyValue;
+        if (mHasRemovedKey) values[index++] = mRemovedKeyValue;
+        for (int i = 0; i < mCapacity; i++) {
+            if (mKeys[i] != FREE_KEY && mKeys[i] != REMOVED_KEY) {
+                values[index++] = mValues[i];
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{");
+        if (mHasFreeKey) sb.append(FREE_KEY + " => " + mFreeKeyValue + ", ");
+        if (mHasRemovedKey) sb.append(REMOVED_KEY + " => " + mRemovedKeyValue + ", ");
+        for (int i = 0; i < mCapacity; i++)
+            if (mKeys[i] != FREE_KEY && mKeys[i] != REMOVED_KEY) sb.append(mKeys[i] + " => " + mValues[i] + ", ");
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,325 @@
+package ds.hashtable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An open addressing hash-table mapping primitive long keys to object values. It
+// follows the same probing scheme as HashTableOpenAddressing, but the keys are
+// kept in a plain long array so nothing is boxed on get/put/remove.
+public class LongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 7;
+    private static final double DEFAULT_LOAD_FACTOR = 0.65;
+
+    // This is the linear constant used in the linear probing, the table capacity
+    // will be adjusted so that the GCD(capacity, LINEAR_CONSTANT) = 1.
+    private static final int LINEAR_CONSTANT = 17;
+
+    // Sentinel keys used to mark an empty slot and a deleted slot. Since a real
+    // key may be equal to one of them, those two keys are stored outside of the
+    // slot arrays in dedicated fields.
+    protected static final long FREE_KEY = 0L;
+    protected static final long REMOVED_KEY = Long.MIN_VALUE;
+
+    protected double mLoadFactor;
+    protected int mCapacity;
+    protected int mThreshold;
+    protected int mModificationCount;
+
+    // 'usedBuckets' counts the total number of used slots inside the
+    // slot arrays (includes slots marked as deleted). While 'keyCount'
+    // tracks the number of unique keys currently inside the hash-table.
+    protected int mUsedBuckets;
+    protected int mKeyCount;
+
+    // These arrays store the key-value pairs.
+    protected long[] mKeys;
+    protected V[] mValues;
+
+    // The key-value pairs whose key collides with a sentinel
+    private boolean mHasFreeKey;
+    private V mFreeKeyValue;
+    private boolean mHasRemovedKey;
+    private V mRemovedKeyValue;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongObjectMap(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongObjectMap(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+
+        if (loadFactor <= 0 || Double.isNaN(loadFactor) || Double.isInfinite(loadFactor)) {
+            throw new IllegalArgumentException("Illegal loadFactor: " + loadFactor);
+        }
+
+        mLoadFactor = loadFactor;
+        mCapacity = Math.max(DEFAULT_CAPACITY, capacity);
+        adjustCapacity();
+        mThreshold = (int) (mCapacity * loadFactor);
+
+        mKeys = new long[mCapacity];
+        mValues = (V[]) new Object[mCapacity];
+    }
+
+    // These three methods dictate how the probing occurs, exactly like in
+    // HashTableOpenAddressing. By default linear probing is used.
+    protected void setupProbing(long key) {}
+
+    protected int probe(int x) {
+        return LINEAR_CONSTANT * x;
+    }
+
+    // Adjust the capacity so that the linear constant and
+    // the table capacity are relatively prime.
+    protected void adjustCapacity() {
+        while (gcd(LINEAR_CONSTANT, mCapacity) != 1) {
+            mCapacity++;
+        }
+    }
+
+    // Return the size of the hash-table
+    public int size() {
+        return mKeyCount;
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return mKeyCount == 0;
+    }
+
+    // Clear everything in the hash-table
+    public void clear() {
+        Arrays.fill(mKeys, FREE_KEY);
+        Arrays.fill(mValues, null);
+        mHasFreeKey = mHasRemovedKey = false;
+        mFreeKeyValue = mRemovedKeyValue = null;
+        mKeyCount = mUsedBuckets = 0;
+        mModificationCount++;
+    }
+
+    // Check is key contained in the hash-table
+    public boolean contains(long key) {
+        if (key == FREE_KEY) return mHasFreeKey;
+        if (key == REMOVED_KEY) return mHasRemovedKey;
+        return indexOf(key) != -1;
+    }
+
+    // Get the value associated with the input key.
+    // NOTE: returns null if the value is null AND also returns
+    // null if the key does not exists.
+    public V get(long key) {
+        if (key == FREE_KEY) return mFreeKeyValue;
+        if (key == REMOVED_KEY) return mRemovedKeyValue;
+
+        int index = indexOf(key);
+        return index == -1 ? null : mValues[index];
+    }
+
+    // Place a key-value pair into the hash-table. If the key already exists
+    // the value is updated and the previous value is returned.
+    public V put(long key, V value) {
+        if (key == FREE_KEY) {
+            V oldValue = mFreeKeyValue;
+            if (!mHasFreeKey) mKeyCount++;
+            mHasFreeKey = true;
+            mFreeKeyValue = value;
+            mModificationCount++;
+            return oldValue;
+        }
+        if (key == REMOVED_KEY) {
+            V oldValue = mRemovedKeyValue;
+            if (!mHasRemovedKey) mKeyCount++;
+            mHasRemovedKey = true;
+            mRemovedKeyValue = value;
+            mModificationCount++;
+            return oldValue;
+        }
+        if (mUsedBuckets >= mThreshold) {
+            resizeTable();
+        }
+
+        setupProbing(key);
+        final int offset = normalizeIndex(hash(key));
+
+        for (int i = offset, j = -1, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
+
+            // The current slot was previously deleted
+            if (mKeys[i] == REMOVED_KEY) {
+                if (j == -1) j = i;
+
+                // The key we're trying to insert already exists in the hash-table,
+                // so update its value with the most recent value
+            } else if (mKeys[i] == key) {
+                V oldValue = mValues[i];
+                if (j == -1) {
+                    mValues[i] = value;
+                } else {
+                    mKeys[i] = REMOVED_KEY;
+                    mValues[i] = null;
+                    mKeys[j] = key;
+                    mValues[j] = value;
+                }
+                mModificationCount++;
+                return oldValue;
+
+                // Current slot is free so an insertion can occur, preferably
+                // in the first deleted slot encountered along the way.
+            } else if (mKeys[i] == FREE_KEY) {
+                if (j == -1) {
+                    mUsedBuckets++;
+                    j = i;
+                }
+                mKeyCount++;
+                mKeys[j] = key;
+                mValues[j] = value;
+                mModificationCount++;
+                return null;
+            }
+        }
+    }
+
+    // Removes a key from the map and returns the value.
+    // NOTE: returns null if the value is null AND also returns
+    // null if the key does not exist
+    public V remove(long key) {
+        if (key == FREE_KEY) {
+            V oldValue = mFreeKeyValue;
+            if (mHasFreeKey) mKeyCount--;
+            mHasFreeKey = false;
+            mFreeKeyValue = null;
+            mModificationCount++;
+            return oldValue;
+        }
+        if (key == REMOVED_KEY) {
+            V oldValue = mRemovedKeyValue;
+            if (mHasRemovedKey) mKeyCount--;
+            mHasRemovedKey = false;
+            mRemovedKeyValue = null;
+            mModificationCount++;
+            return oldValue;
+        }
+
+        int index = indexOf(key);
+        if (index == -1) return null;
+
+        mKeyCount--;
+        mModificationCount++;
+        V oldValue = mValues[index];
+        mKeys[index] = REMOVED_KEY;
+        mValues[index] = null;
+        return oldValue;
+    }
+
+    // Returns the slot holding the key, or -1 if the key does not exist.
+    // The key must not be one of the sentinels.
+    private int indexOf(long key) {
+        setupProbing(key);
+        final int offset = normalizeIndex(hash(key));
+
+        // Starting at the original hash probe until we find a slot where our
+        // key is or we hit a free slot in which case our key does not exist.
+        for (int i = offset, x = 1; ; i = normalizeIndex(offset + probe(x++))) {
+            if (mKeys[i] == key) return i;
+            if (mKeys[i] == FREE_KEY) return -1;
+        }
+    }
+
+    // Folds a long key into an int hash, the same way Long.hashCode() does
+    protected static int hash(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    // Converts a hash value to an index. Essentially, this strips the
+    // negative sign and places the hash value in the domain [0, capacity)
+    protected int normalizeIndex(int keyHash) {
+        return (keyHash & 0x7FFFFFFF) % mCapacity;
+    }
+
+    // Finds the greatest common denominator of a and b.
+    protected int gcd(int a, int b) {
+        if (b == 0) {
+            return a;
+        }
+        return gcd(b, a % b);
+    }
+
+    // Increases the capacity of the hash table.
+    protected void increaseCapacity() {
+        mCapacity = (2 * mCapacity) + 1;
+    }
+
+    // Double the size of the hash-table
+    protected void resizeTable() {
+        increaseCapacity();
+        adjustCapacity();
+
+        mThreshold = (int) (mCapacity * mLoadFactor);
+
+        long[] oldKeyTable = mKeys;
+        V[] oldValueTable = mValues;
+        mKeys = new long[mCapacity];
+        mValues = (V[]) new Object[mCapacity];
+
+        // Reset the key count and buckets used since we are about to re-insert
+        // all the keys into the hash-table. Only the sentinel keys stay counted.
+        mKeyCount = (mHasFreeKey ? 1 : 0) + (mHasRemovedKey ? 1 : 0);
+        mUsedBuckets = 0;
+
+        for (int i = 0; i < oldKeyTable.length; i++) {
+            if (oldKeyTable[i] != FREE_KEY && oldKeyTable[i] != REMOVED_KEY) {
+                put(oldKeyTable[i], oldValueTable[i]);
+            }
+            oldValueTable[i] = null;
+        }
+    }
+
+    // Returns the keys found in the hash table
+    public long[] keys() {
+        long[] keys = new long[size()];
+        int index = 0;
+        if (mHasFreeKey) keys[index++] = FREE_KEY;
+        if (mHasRemovedKey) keys[index++] = REMOVED_KEY;
+        for (int i = 0; i < mCapacity; i++) {
+            if (mKeys[i] != FREE_KEY && mKeys[i] != REMOVED_KEY) {
+                keys[index++] = mKeys[i];
+            }
+        }
+        return keys;
+    }
+
+    // Returns a list of non-unique values found in the hash table, in the same order as keys()
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        if (mHasFreeKey) values.add(mFreeKeyValue);
+        if (mHasRemovedKey) values.add(mRemovedKeyValue);
+        for (int i = 0; i < mCapacity; i++) {
+            if (mKeys[i] != FREE_KEY && mKeys[i] != REMOVED_KEY) {
+                values.add(mValues[i]);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{");
+        if (mHasFreeKey) sb.append(FREE_KEY + " => " + mFreeKeyValue + ", ");
+        if (mHasRemovedKey) sb.append(REMOVED_KEY + " => " + mRemovedKeyValue + ", ");
+        for (int i = 0; i < mCapacity; i++)
+            if (mKeys[i] != FREE_KEY && mKeys[i] != REMOVED_KEY) sb.append(mKeys[i] + " => " + mValues[i] + ", ");
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+}
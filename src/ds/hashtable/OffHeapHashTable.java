@@ -0,0 +1,599 @@
+package ds.hashtable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// An open addressing hash-table for fixed width binary keys and values which keeps
+// all of its slots outside of the Java heap, in direct ByteBuffers. The garbage
+// collector never scans or copies the slots, so even tables of tens of millions
+// of records leave the GC pause times untouched.
+//
+// Every slot is laid out as
+//
+//   [control byte][4 byte key hash][key bytes][value bytes]
+//
+// and the slots are split over chunks of at most 1GB, since a single ByteBuffer
+// is indexed with an int. The probing is defined the same way as in
+// ConcurrentHashTableOpenAddressing, setupProbing() returns a state for the key
+// hash which is passed to every probe() call.
+//
+// NOTE: The direct memory is only released once the table itself is garbage
+// collected. MemorySegment would allow freeing it explicitly, but the Foreign
+// Memory API is still incubating in Java 17.
+//
+// A table can be saved to a file holding a header followed by the raw chunks, and
+// opened again by mapping the chunks straight from the file. Opening is O(1), the
+// pages are only read from the page cache when lookups touch them.
+public abstract class OffHeapHashTable {
+
+    // The header of a saved table, the slots start right after it
+    private static final int FILE_MAGIC = 0x4F484854;
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    // Identifies the probing of a saved table
+    private static final byte LINEAR_PROBING = 1;
+    private static final byte QUADRATIC_PROBING = 2;
+    private static final byte DOUBLE_HASHING = 3;
+
+    private static final int DEFAULT_CAPACITY = 7;
+    private static final double DEFAULT_LOAD_FACTOR = 0.65;
+
+    // The maximum number of bytes held by a single chunk
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    // Control byte values, a new direct buffer is zeroed so all slots start EMPTY
+    protected static final byte EMPTY = 0;
+    protected static final byte FULL = 1;
+    protected static final byte DELETED = 2;
+
+    // Offsets of the slot fields from the start of a slot
+    protected static final int CONTROL_OFFSET = 0;
+    protected static final int HASH_OFFSET = 1;
+    protected static final int KEY_OFFSET = 5;
+
+    protected final int mKeyWidth;
+    protected final int mValueWidth;
+    protected final int mSlotWidth;
+    protected final double mLoadFactor;
+
+    protected int mCapacity;
+    protected int mThreshold;
+
+    // 'usedSlots' counts the FULL and DELETED slots while
+    // 'keyCount' counts the keys inside the hash-table.
+    protected int mUsedSlots;
+    protected int mKeyCount;
+
+    // The slots are grouped in chunks of 2^chunkShift slots, the last one may be shorter
+    protected int mChunkShift;
+    protected ByteBuffer[] mChunks;
+
+    protected OffHeapHashTable(int keyWidth, int valueWidth) {
+        this(keyWidth, valueWidth, DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    protected OffHeapHashTable(int keyWidth, int valueWidth, int capacity) {
+        this(keyWidth, valueWidth, capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    protected OffHeapHashTable(int keyWidth, int valueWidth, int capacity, double loadFactor) {
+        if (keyWidth <= 0) {
+            throw new IllegalArgumentException("Illegal keyWidth: " + keyWidth);
+        }
+        if (valueWidth < 0) {
+            throw new IllegalArgumentException("Illegal valueWidth: " + valueWidth);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal loadFactor: " + loadFactor);
+        }
+        mKeyWidth = keyWidth;
+        mValueWidth = valueWidth;
+        mSlotWidth = KEY_OFFSET + keyWidth + valueWidth;
+        mLoadFactor = loadFactor;
+        mChunkShift = 31 - Integer.numberOfLeadingZeros(MAX_CHUNK_BYTES / mSlotWidth);
+        allocate(adjustCapacity(Math.max(DEFAULT_CAPACITY, capacity)));
+    }
+
+    // These three methods are used to dictate how the probing is to actually
+    // occur, the probing of a table must visit all of its slots. setupProbing()
+    // returns a state for the key hash which is passed to every probe() call.
+    protected abstract int setupProbing(int hash, int capacity);
+
+    protected abstract long probe(int state, int x);
+
+    // Returns the capacity adjusted so that the probing can visit all slots
+    protected abstract int adjustCapacity(int capacity);
+
+    // Allocates zeroed chunks for the given number of slots
+    private void allocate(int capacity) {
+        int chunkSlots = 1 << mChunkShift;
+        int chunkCount = (int) (((long) capacity + chunkSlots - 1) >>> mChunkShift);
+
+        mChunks = new ByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            int slots = Math.min(chunkSlots, capacity - c * chunkSlots);
+            mChunks[c] = ByteBuffer.allocateDirect(slots * mSlotWidth).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        mCapacity = capacity;
+        mThreshold = (int) (capacity * mLoadFactor);
+        mUsedSlots = mKeyCount = 0;
+    }
+
+    // Return the size of the hash-table
+    public int size() {
+        return mKeyCount;
+    }
+
+    // Returns if the hash-table contains no elements
+    public boolean isEmpty() {
+        return mKeyCount == 0;
+    }
+
+    // Returns the width of the keys in bytes
+    public int keyWidth() {
+        return mKeyWidth;
+    }
+
+    // Returns the width of the values in bytes
+    public int valueWidth() {
+        return mValueWidth;
+    }
+
+    // Clear everything in the hash-table
+    public void clear() {
+        for (int i = 0; i < mCapacity; i++) {
+            chunk(i).put(position(i) + CONTROL_OFFSET, EMPTY);
+        }
+        mUsedSlots = mKeyCount = 0;
+    }
+
+    // Check is element contained in the hash-table
+    public boolean contains(byte[] key) {
+        return indexOf(key) != -1;
+    }
+
+    // Copies the value associated with the key into 'value'.
+    // Returns false if the key does not exist.
+    public boolean get(byte[] key, byte[] value) {
+        checkValue(value);
+        int index = indexOf(key);
+        if (index == -1) {
+            return false;
+        }
+        ByteBuffer chunk = chunk(index);
+        int position = position(index) + KEY_OFFSET + mKeyWidth;
+        for (int b = 0; b < mValueWidth; b++) {
+            value[b] = chunk.get(position + b);
+        }
+        return true;
+    }
+
+    // Place a key-value pair into the hash-table. If the key already exists
+    // its value is overwritten. Returns true if the key already existed.
+    public boolean put(byte[] key, byte[] value) {
+        checkKey(key);
+        checkValue(value);
+        if (mUsedSlots >= mThreshold) {
+            resizeTable();
+        }
+
+        int hash = hash(key);
+        int state = setupProbing(hash, mCapacity);
+        int offset = ProbingRules.normalizeIndex(hash, mCapacity);
+
+        for (int x = 0, j = -1; ; x++) {
+            int i = ProbingRules.slot(offset, probe(state, x), mCapacity);
+            byte control = chunk(i).get(position(i) + CONTROL_OFFSET);
+
+            // Remember the first deleted slot, the key goes there if it's new
+            if (control == DELETED) {
+                if (j == -1) j = i;
+            } else if (control == FULL) {
+                if (keyEquals(i, hash, key)) {
+                    writeValue(i, value);
+                    return true;
+                }
+            } else {
+                if (j == -1) {
+                    mUsedSlots++;
+                    j = i;
+                }
+                writeSlot(j, hash, key, value);
+                mKeyCount++;
+                return false;
+            }
+        }
+    }
+
+    // Removes a key from the hash-table, returns false if the key does not exist
+    public boolean remove(byte[] key) {
+        int index = indexOf(key);
+        if (index == -1) {
+            return false;
+        }
+        chunk(index).put(position(index) + CONTROL_OFFSET, DELETED);
+        mKeyCount--;
+        return true;
+    }
+
+    // Returns the slot holding the key, or -1 if the key does not exist
+    protected int indexOf(byte[] key) {
+        checkKey(key);
+
+        int hash = hash(key);
+        int state = setupProbing(hash, mCapacity);
+        int offset = ProbingRules.normalizeIndex(hash, mCapacity);
+
+        for (int x = 0; x < mCapacity; x++) {
+            int i = ProbingRules.slot(offset, probe(state, x), mCapacity);
+            byte control = chunk(i).get(position(i) + CONTROL_OFFSET);
+            if (control == EMPTY) {
+                return -1;
+            }
+            if (control == FULL && keyEquals(i, hash, key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Compares the key of a FULL slot with a key, the stored hash is checked first
+    private boolean keyEquals(int index, int hash, byte[] key) {
+        ByteBuffer chunk = chunk(index);
+        int position = position(index);
+        if (chunk.getInt(position + HASH_OFFSET) != hash) {
+            return false;
+        }
+        position += KEY_OFFSET;
+        for (int b = 0; b < mKeyWidth; b++) {
+            if (chunk.get(position + b) != key[b]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeSlot(int index, int hash, byte[] key, byte[] value) {
+        ByteBuffer chunk = chunk(index);
+        int position = position(index);
+        chunk.put(position + CONTROL_OFFSET, FULL);
+        chunk.putInt(position + HASH_OFFSET, hash);
+        chunk.put(position + KEY_OFFSET, key, 0, mKeyWidth);
+        chunk.put(position + KEY_OFFSET + mKeyWidth, value, 0, mValueWidth);
+    }
+
+    private void writeValue(int index, byte[] value) {
+        chunk(index).put(position(index) + KEY_OFFSET + mKeyWidth, value, 0, mValueWidth);
+    }
+
+    // Doubles the hash-table, or only rehashes it at the same capacity
+    // when most of the used slots are deleted ones.
+    protected void resizeTable() {
+        int capacity = mCapacity;
+        if (mKeyCount >= mUsedSlots / 2) {
+            capacity = adjustCapacity(2 * capacity + 1);
+        }
+
+        ByteBuffer[] oldChunks = mChunks;
+        int oldCapacity = mCapacity;
+        int keyCount = mKeyCount;
+        allocate(capacity);
+
+        // Moves the FULL slots as whole, the stored hash saves rehashing the keys
+        for (int i = 0; i < oldCapacity; i++) {
+            ByteBuffer oldChunk = oldChunks[i >>> mChunkShift];
+            int oldPosition = position(i);
+            if (oldChunk.get(oldPosition + CONTROL_OFFSET) != FULL) {
+                continue;
+            }
+            int hash = oldChunk.getInt(oldPosition + HASH_OFFSET);
+            int state = setupProbing(hash, mCapacity);
+            int offset = ProbingRules.normalizeIndex(hash, mCapacity);
+            for (int x = 0; ; x++) {
+                int j = ProbingRules.slot(offset, probe(state, x), mCapacity);
+                ByteBuffer chunk = chunk(j);
+                int position = position(j);
+                if (chunk.get(position + CONTROL_OFFSET) == EMPTY) {
+                    chunk.put(position, oldChunk, oldPosition, mSlotWidth);
+                    mUsedSlots++;
+                    break;
+                }
+            }
+        }
+        mKeyCount = keyCount;
+    }
+
+    // Returns a list of keys found in the hash table
+    public List<byte[]> keys() {
+        List<byte[]> keys = new ArrayList<>(size());
+        for (int i = 0; i < mCapacity; i++) {
+            if (chunk(i).get(position(i) + CONTROL_OFFSET) == FULL) {
+                byte[] key = new byte[mKeyWidth];
+                chunk(i).get(position(i) + KEY_OFFSET, key);
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    // Returns a list of non-unique values found in the hash table
+    public List<byte[]> values() {
+        List<byte[]> values = new ArrayList<>(size());
+        for (int i = 0; i < mCapacity; i++) {
+            if (chunk(i).get(position(i) + CONTROL_OFFSET) == FULL) {
+                byte[] value = new byte[mValueWidth];
+                chunk(i).get(position(i) + KEY_OFFSET + mKeyWidth, value);
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    // Saves the hash-table to a file. The table is written to a temporary file which
+    // is flushed to disk and then atomically renamed, so a crash while saving never
+    // leaves a partially written file behind under the final name. The directory is
+    // flushed after the rename so that the new name itself survives a crash.
+    public void save(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(FILE_MAGIC);
+        header.putInt(FILE_VERSION);
+        header.put(probingType());
+        header.putInt(mKeyWidth);
+        header.putInt(mValueWidth);
+        header.putDouble(mLoadFactor);
+        header.putInt(mChunkShift);
+        header.putInt(mCapacity);
+        header.putInt(mUsedSlots);
+        header.putInt(mKeyCount);
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (ByteBuffer chunk : mChunks) {
+                writeFully(channel, chunk.duplicate().clear());
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    // Flushes the entries of a directory to disk. Windows refuses to open a directory
+    // as a channel, there the rename is already made durable by the file system.
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (AccessDeniedException e) {
+            return;
+        }
+        try (FileChannel dir = channel) {
+            dir.force(true);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Opens a hash-table saved with save(). The chunks are mapped privately, so the
+    // table can be modified without ever writing to the file, pages are only copied
+    // once they are modified. Save the table again to persist the changes.
+    public static OffHeapHashTable open(Path path) throws IOException {
+        // A private mapping needs a writable channel, even though nothing is ever written
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated header: " + path);
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != FILE_MAGIC) {
+                throw new IOException("Not a hash-table file: " + path);
+            }
+            int version = header.getInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported file version: " + version);
+            }
+            byte probingType = header.get();
+            int keyWidth = header.getInt();
+            int valueWidth = header.getInt();
+            double loadFactor = header.getDouble();
+            int chunkShift = header.getInt();
+            int capacity = header.getInt();
+            int usedSlots = header.getInt();
+            int keyCount = header.getInt();
+
+            OffHeapHashTable table;
+            if (probingType == LINEAR_PROBING) {
+                table = new LinearProbing(keyWidth, valueWidth, DEFAULT_CAPACITY, loadFactor);
+            } else if (probingType == QUADRATIC_PROBING) {
+                table = new QuadraticProbing(keyWidth, valueWidth, DEFAULT_CAPACITY, loadFactor);
+            } else if (probingType == DOUBLE_HASHING) {
+                table = new DoubleHashing(keyWidth, valueWidth, DEFAULT_CAPACITY, loadFactor);
+            } else {
+                throw new IOException("Unknown probing: " + probingType);
+            }
+            if (chunkShift != table.mChunkShift) {
+                throw new IOException("Illegal chunk size: " + chunkShift);
+            }
+            if (channel.size() != HEADER_SIZE + (long) capacity * table.mSlotWidth) {
+                throw new IOException("Illegal file size: " + channel.size());
+            }
+
+            // The mappings stay valid after the channel is closed
+            long chunkBytes = (long) table.mSlotWidth << chunkShift;
+            int chunkCount = (int) ((capacity + (1L << chunkShift) - 1) >>> chunkShift);
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+            for (int c = 0; c < chunkCount; c++) {
+                long start = HEADER_SIZE + c * chunkBytes;
+                long size = Math.min(chunkBytes, channel.size() - start);
+                chunks[c] = channel.map(FileChannel.MapMode.PRIVATE, start, size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            table.mChunks = chunks;
+            table.mCapacity = capacity;
+            table.mThreshold = (int) (capacity * loadFactor);
+            table.mUsedSlots = usedSlots;
+            table.mKeyCount = keyCount;
+            return table;
+        }
+    }
+
+    // Returns the probing type stored in the header of a saved table
+    private byte probingType() {
+        if (this instanceof LinearProbing) return LINEAR_PROBING;
+        if (this instanceof QuadraticProbing) return QUADRATIC_PROBING;
+        if (this instanceof DoubleHashing) return DOUBLE_HASHING;
+        throw new UnsupportedOperationException("Unknown probing: " + getClass().getName());
+    }
+
+    // Returns the chunk holding a slot
+    protected ByteBuffer chunk(int index) {
+        return mChunks[index >>> mChunkShift];
+    }
+
+    // Returns the position of a slot inside its chunk
+    protected int position(int index) {
+        return (index & ((1 << mChunkShift) - 1)) * mSlotWidth;
+    }
+
+    private void checkKey(byte[] key) {
+        if (key == null) throw new IllegalArgumentException("Null key");
+        if (key.length != mKeyWidth) throw new IllegalArgumentException("Illegal key length: " + key.length);
+    }
+
+    private void checkValue(byte[] value) {
+        if (value == null) throw new IllegalArgumentException("Null value");
+        if (value.length != mValueWidth) throw new IllegalArgumentException("Illegal value length: " + value.length);
+    }
+
+    // Hashes the key bytes with FNV-1a followed by the murmur3 finalizer,
+    // which mixes the bits well enough for both probing hashes.
+    protected static int hash(byte[] key) {
+        int hash = 0x811C9DC5;
+        for (byte b : key) {
+            hash = (hash ^ b) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    public static class LinearProbing extends OffHeapHashTable {
+
+        public LinearProbing(int keyWidth, int valueWidth) {
+            super(keyWidth, valueWidth);
+        }
+
+        public LinearProbing(int keyWidth, int valueWidth, int capacity) {
+            super(keyWidth, valueWidth, capacity);
+        }
+
+        public LinearProbing(int keyWidth, int valueWidth, int capacity, double loadFactor) {
+            super(keyWidth, valueWidth, capacity, loadFactor);
+        }
+
+        @Override
+        protected int setupProbing(int hash, int capacity) {
+            return 0;
+        }
+
+        @Override
+        protected long probe(int state, int x) {
+            return ProbingRules.linearProbe(x);
+        }
+
+        @Override
+        protected int adjustCapacity(int capacity) {
+            return ProbingRules.linearCapacity(capacity);
+        }
+
+    }
+
+    public static class QuadraticProbing extends OffHeapHashTable {
+
+        public QuadraticProbing(int keyWidth, int valueWidth) {
+            super(keyWidth, valueWidth);
+        }
+
+        public QuadraticProbing(int keyWidth, int valueWidth, int capacity) {
+            super(keyWidth, valueWidth, capacity);
+        }
+
+        public QuadraticProbing(int keyWidth, int valueWidth, int capacity, double loadFactor) {
+            super(keyWidth, valueWidth, capacity, loadFactor);
+        }
+
+        @Override
+        protected int setupProbing(int hash, int capacity) {
+            return 0;
+        }
+
+        @Override
+        protected long probe(int state, int x) {
+            return ProbingRules.quadraticProbe(x);
+        }
+
+        @Override
+        protected int adjustCapacity(int capacity) {
+            return ProbingRules.quadraticCapacity(capacity);
+        }
+
+    }
+
+    public static class DoubleHashing extends OffHeapHashTable {
+
+        public DoubleHashing(int keyWidth, int valueWidth) {
+            super(keyWidth, valueWidth);
+        }
+
+        public DoubleHashing(int keyWidth, int valueWidth, int capacity) {
+            super(keyWidth, valueWidth, capacity);
+        }
+
+        public DoubleHashing(int keyWidth, int valueWidth, int capacity, double loadFactor) {
+            super(keyWidth, valueWidth, capacity, loadFactor);
+        }
+
+        // The second hash is taken from the upper bits of the key hash
+        @Override
+        protected int setupProbing(int hash, int capacity) {
+            return ProbingRules.doubleHashingState(Integer.rotateLeft(hash * 0x9E3779B9, 16), capacity);
+        }
+
+        @Override
+        protected long probe(int state, int x) {
+            return ProbingRules.doubleHashingProbe(state, x);
+        }
+
+        @Override
+        protected int adjustCapacity(int capacity) {
+            return ProbingRules.doubleHashingCapacity(capacity);
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package ds.hashtable;
+
+import java.util.Random;
+
+// Compares the default prime/coprime capacity scheme of the open addressing
+// tables against the power of two mode with mask based indexing.
+public class PowerOfTwoBenchmark {
+
+    private static final int KEY_COUNT = 1 << 20;
+    private static final int ROUNDS = 5;
+
+    // A key supporting double hashing
+    private static class Key implements HashTableDoubleHashing.SecondaryHash {
+
+        private final int mValue;
+
+        Key(int value) {
+            mValue = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return mValue;
+        }
+
+        @Override
+        public int hashCode2() {
+            return mValue * 31 + 7;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).mValue == mValue;
+        }
+
+    }
+
+    private interface TableFactory {
+        HashTableOpenAddressing<Key, Integer> create(boolean powerOfTwo);
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Key[] keys = new Key[KEY_COUNT];
+        Key[] missingKeys = new Key[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            int value = random.nextInt() & ~1;
+            keys[i] = new Key(value);
+            missingKeys[i] = new Key(value | 1);
+        }
+
+        run("Linear probing", powerOfTwo -> new HashTableLinearProbing<>(7, 0.65, powerOfTwo), keys, missingKeys);
+        run("Quadratic probing", powerOfTwo -> new HashTableQuadraticProbing<>(7, 0.65, powerOfTwo), keys, missingKeys);
+        run("Double hashing", powerOfTwo -> new HashTableDoubleHashing<>(7, 0.65, powerOfTwo), keys, missingKeys);
+    }
+
+    private static void run(String name, TableFactory factory, Key[] keys, Key[] missingKeys) {
+        System.out.println(name);
+        for (boolean powerOfTwo : new boolean[]{false, true}) {
+            long putTime = 0, hitTime = 0, missTime = 0;
+            int found = 0;
+
+            // The first round only warms up the JIT
+            for (int round = 0; round <= ROUNDS; round++) {
+                HashTableOpenAddressing<Key, Integer> table = factory.create(powerOfTwo);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < keys.length; i++) {
+                    table.put(keys[i], i);
+                }
+                long putEnd = System.nanoTime();
+                for (Key key : keys) {
+                    if (table.get(key) != null) found++;
+                }
+                long hitEnd = System.nanoTime();
+                for (Key key : missingKeys) {
+                    if (table.get(key) != null) found++;
+                }
+                long missEnd = System.nanoTime();
+
+                if (round > 0) {
+                    putTime += putEnd - start;
+                    hitTime += hitEnd - putEnd;
+                    missTime += missEnd - hitEnd;
+                }
+            }
+
+            System.out.printf("  %-13s put %6.1f ns/op, hit %6.1f ns/op, miss %6.1f ns/op (%d)%n",
+                    powerOfTwo ? "power of two" : "prime/coprime",
+                    nanosPerOp(putTime), nanosPerOp(hitTime), nanosPerOp(missTime), found);
+        }
+    }
+
+    private static double nanosPerOp(long totalTime) {
+        return (double) totalTime / ((long) ROUNDS * KEY_COUNT);
+    }
+
+}
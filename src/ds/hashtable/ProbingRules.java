@@ -0,0 +1,75 @@
+package ds.hashtable;
+
+import java.math.BigInteger;
+
+// The probing rules shared by the open addressing tables which do not extend
+// HashTableOpenAddressing, ConcurrentHashTableOpenAddressing and OffHeapHashTable.
+// Every rule is stateless, the LinearProbing, QuadraticProbing and DoubleHashing
+// subclasses of both tables delegate their setupProbing(), probe() and
+// adjustCapacity() methods to them.
+final class ProbingRules {
+
+    // The linear constant, the table capacity is adjusted so
+    // that the GCD(capacity, LINEAR_CONSTANT) = 1.
+    private static final int LINEAR_CONSTANT = 17;
+
+    private ProbingRules() {
+    }
+
+    // Converts a hash value to an index in the domain [0, capacity)
+    static int normalizeIndex(int keyHash, int capacity) {
+        return (keyHash & 0x7FFFFFFF) % capacity;
+    }
+
+    // Returns the slot visited after moving probe slots away from offset
+    static int slot(int offset, long probe, int capacity) {
+        return (int) ((offset + (probe & Long.MAX_VALUE)) % capacity);
+    }
+
+    // Finds the greatest common denominator of a and b.
+    static int gcd(int a, int b) {
+        if (b == 0) {
+            return a;
+        }
+        return gcd(b, a % b);
+    }
+
+    static long linearProbe(int x) {
+        return (long) LINEAR_CONSTANT * x;
+    }
+
+    static int linearCapacity(int capacity) {
+        while (gcd(LINEAR_CONSTANT, capacity) != 1) {
+            capacity++;
+        }
+        return capacity;
+    }
+
+    // Quadratic probing function (x^2+x)/2
+    static long quadraticProbe(int x) {
+        return ((long) x * x + x) >> 1;
+    }
+
+    // The capacity must be a power of two
+    static int quadraticCapacity(int capacity) {
+        int pow2 = Integer.highestOneBit(capacity);
+        return pow2 == capacity ? capacity : pow2 << 1;
+    }
+
+    // The state is the second hash value, never zero to avoid an infinite loop
+    static int doubleHashingState(int hash2, int capacity) {
+        int state = normalizeIndex(hash2, capacity);
+        return state == 0 ? 1 : state;
+    }
+
+    static long doubleHashingProbe(int state, int x) {
+        return (long) x * state;
+    }
+
+    // The capacity must be a prime number so GCD(hash, capacity) = 1
+    static int doubleHashingCapacity(int capacity) {
+        BigInteger value = BigInteger.valueOf(capacity);
+        return value.isProbablePrime(20) ? capacity : value.nextProbablePrime().intValue();
+    }
+
+}
@@ -0,0 +1,54 @@
+package ds.hashtable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+// Splits a range of slots or buckets in halves until it's small enough to process
+// directly, and combines the non-null results of the halves. Used by the parallel
+// bulk operations of the hash-tables.
+class RangeTask<U> extends RecursiveTask<U> {
+
+    private static final long serialVersionUID = 1L;
+
+    // Computes a result for the indices [start, end)
+    interface RangeFunction<U> {
+        U apply(int start, int end);
+    }
+
+    private final int mStart;
+    private final int mEnd;
+    private final int mMinSplit;
+    private final RangeFunction<U> mFunction;
+    private final BinaryOperator<U> mCombiner;
+
+    private RangeTask(int start, int end, int minSplit, RangeFunction<U> function, BinaryOperator<U> combiner) {
+        mStart = start;
+        mEnd = end;
+        mMinSplit = minSplit;
+        mFunction = function;
+        mCombiner = combiner;
+    }
+
+    // Applies the function to [0, end) on the common ForkJoinPool, ranges no longer
+    // than minSplit are not split. Returns null if every range returned null.
+    static <U> U invoke(int end, int minSplit, RangeFunction<U> function, BinaryOperator<U> combiner) {
+        return ForkJoinPool.commonPool().invoke(new RangeTask<>(0, end, minSplit, function, combiner));
+    }
+
+    @Override
+    protected U compute() {
+        if (mEnd - mStart <= mMinSplit) {
+            return mFunction.apply(mStart, mEnd);
+        }
+        int mid = (mStart + mEnd) >>> 1;
+        RangeTask<U> left = new RangeTask<>(mStart, mid, mMinSplit, mFunction, mCombiner);
+        left.fork();
+        U right = new RangeTask<>(mid, mEnd, mMinSplit, mFunction, mCombiner).compute();
+        U leftResult = left.join();
+        if (leftResult == null) return right;
+        if (right == null) return leftResult;
+        return mCombiner.apply(leftResult, right);
+    }
+
+}
@@ -0,0 +1,81 @@
+package ds.hashtable;
+
+// Measures the latency of single put calls while a table grows from empty,
+// with stop-the-world resizing against incremental resizing. A stop-the-world
+// resize moves every key inside one put, which shows up in the tail latency.
+public class ResizeLatencyBenchmark {
+
+    private static final int KEY_COUNT = 1 << 21;
+    private static final int ROUNDS = 3;
+
+    // Bucket i of the histogram counts the puts taking [2^i, 2^(i+1)) nanoseconds
+    private static final int BUCKETS = 64;
+
+    private interface Table {
+        void put(Integer key, Integer value);
+    }
+
+    private interface TableFactory {
+        Table create(boolean incremental);
+    }
+
+    public static void main(String[] args) {
+        Integer[] keys = new Integer[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = i * 0x9E3779B9;
+        }
+
+        run("Linear probing", incremental -> {
+            HashTableLinearProbing<Integer, Integer> table = new HashTableLinearProbing<>();
+            table.setIncrementalResize(incremental);
+            return table::put;
+        }, keys);
+        run("Separate chaining", incremental -> {
+            HashTableSeparateChaining<Integer, Integer> table = new HashTableSeparateChaining<>();
+            table.setIncrementalResize(incremental);
+            return table::put;
+        }, keys);
+    }
+
+    private static void run(String name, TableFactory factory, Integer[] keys) {
+        System.out.println(name);
+        for (boolean incremental : new boolean[]{false, true}) {
+            long[] histogram = new long[BUCKETS];
+            long max = 0;
+
+            // The first round only warms up the JIT
+            for (int round = 0; round <= ROUNDS; round++) {
+                Table table = factory.create(incremental);
+                for (int i = 0; i < keys.length; i++) {
+                    long start = System.nanoTime();
+                    table.put(keys[i], i);
+                    long time = System.nanoTime() - start;
+
+                    if (round > 0) {
+                        histogram[63 - Long.numberOfLeadingZeros(Math.max(1, time))]++;
+                        max = Math.max(max, time);
+                    }
+                }
+            }
+
+            long total = (long) ROUNDS * keys.length;
+            System.out.printf("  %-16s p50 %8d ns, p99 %8d ns, p99.9 %8d ns, max %10d ns%n",
+                    incremental ? "incremental" : "stop-the-world",
+                    percentile(histogram, total, 0.5), percentile(histogram, total, 0.99),
+                    percentile(histogram, total, 0.999), max);
+        }
+    }
+
+    // Returns the upper bound of the histogram bucket holding the percentile
+    private static long percentile(long[] histogram, long total, double percentile) {
+        long rank = (long) Math.ceil(total * percentile), seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return (2L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+}
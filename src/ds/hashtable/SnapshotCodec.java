@@ -0,0 +1,101 @@
+package ds.hashtable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Encodes the keys or values of a hash-table snapshot, see writeSnapshot()
+// and readSnapshot() of the hash-tables. The static helpers hold the snapshot
+// format shared by the hash-tables: a header of magic, version and entry count,
+// then each key followed by a presence flag and the value if it is not null.
+public interface SnapshotCodec<T> {
+
+    int SNAPSHOT_MAGIC = 0x48545331;
+    int SNAPSHOT_VERSION = 1;
+
+    // The most entries a reader sizes its table for before reading them. The count
+    // comes from the stream, so a larger one is only trusted as entries arrive.
+    int MAX_PRESIZE_ENTRIES = 1 << 16;
+
+    SnapshotCodec<Integer> INTEGER = new SnapshotCodec<Integer>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    SnapshotCodec<Long> LONG = new SnapshotCodec<Long>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    // Strings are limited to 65535 bytes of modified UTF-8
+    SnapshotCodec<String> STRING = new SnapshotCodec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    // Writes a non-null value
+    void write(T value, DataOutput out) throws IOException;
+
+    // Reads a value written by write()
+    T read(DataInput in) throws IOException;
+
+    // Writes the header of a snapshot
+    static void writeHeader(DataOutput out, int count) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(count);
+    }
+
+    // Checks the header of a snapshot and returns its entry count
+    static int readHeader(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a hash-table snapshot");
+        }
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Illegal entry count: " + count);
+        }
+        return count;
+    }
+
+    // Writes a single entry of a snapshot, values may be null
+    static <K, V> void writeEntry(DataOutput out, K key, V value, SnapshotCodec<K> keyCodec,
+                                  SnapshotCodec<V> valueCodec) throws IOException {
+        keyCodec.write(key, out);
+        out.writeBoolean(value != null);
+        if (value != null) {
+            valueCodec.write(value, out);
+        }
+    }
+
+    // Reads the value of an entry written by writeEntry(), after its key
+    static <V> V readValue(DataInput in, SnapshotCodec<V> valueCodec) throws IOException {
+        return in.readBoolean() ? valueCodec.read(in) : null;
+    }
+
+}
@@ -96,22 +96,53 @@ public class LinkedList<T> implements Iterable<T> {
 
     // O(1)
     private T remove(Node<T> node) {
+        T data = node.mData;
+        unlink(node);
+        node.mData = null;
+        return data;
+    }
+
+    // O(1), appends a node which is not linked into any list. Lets callers
+    // keep hold of their nodes and move them between lists without allocating.
+    public void linkLast(Node<T> node) {
+        node.mPrev = mTail;
+        node.mNext = null;
+        if (isEmpty()) {
+            mHead = node;
+        } else {
+            mTail.mNext = node;
+        }
+        mTail = node;
+        mSize++;
+    }
+
+    // O(1), detaches a node of this list, the node keeps its data
+    public void unlink(Node<T> node) {
         if (node.mPrev == null) {
-            return removeFirst();
+            mHead = node.mNext;
+        } else {
+            node.mPrev.mNext = node.mNext;
         }
         if (node.mNext == null) {
-            return removeLast();
+            mTail = node.mPrev;
+        } else {
+            node.mNext.mPrev = node.mPrev;
         }
-
-        node.mNext.mPrev = node.mPrev;
-        node.mPrev.mNext = node.mNext;
-
-        T data = node.mData;
-        node.mData = null;
         node.mPrev = node.mNext = null;
         mSize--;
+    }
 
-        return data;
+    // O(1), moves a node of this list to its end
+    public void moveToLast(Node<T> node) {
+        if (node != mTail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    // O(1), returns the first node or null if the list is empty
+    public Node<T> firstNode() {
+        return mHead;
     }
 
     // O(n)
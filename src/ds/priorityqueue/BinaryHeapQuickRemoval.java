@@ -4,7 +4,31 @@ import java.util.*;
 
 public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
 
-    private final List<T> mHeap;
+    // A heap element which knows its current index in the heap. Swaps update the
+    // index in place, so removing or updating an element through its handle needs
+    // no map lookup.
+    public static final class Handle<T> {
+
+        private T mValue;
+        private int mIndex;
+
+        private Handle(T value, int index) {
+            mValue = value;
+            mIndex = index;
+        }
+
+        public T value() {
+            return mValue;
+        }
+
+        // Returns if the element is still in the heap
+        public boolean isActive() {
+            return mIndex != -1;
+        }
+
+    }
+
+    private final List<Handle<T>> mHeap;
     private int mSize = 0;   // The number of elements currently inside the heap
     private int mCapacity = 0;   // The internal capacity of the heap
 
@@ -14,6 +38,10 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
     // at the cost of some additional space and minor overhead
     private final Map<T, TreeSet<Integer>> mMap = new HashMap<>();
 
+    // False in handle mode, where elements are removed and updated through their
+    // handles and mMap is not kept. remove(T) and contains(T) then search linearly.
+    private final boolean mTrackValues;
+
     // Construct and initially empty priority ds.queue
     public BinaryHeapQuickRemoval() {
         this(1);
@@ -21,18 +49,26 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
 
     // Construct a priority ds.queue with an initial capacity
     public BinaryHeapQuickRemoval(int capacity) {
+        this(capacity, true);
+    }
+
+    // Construct a priority ds.queue with an initial capacity, in handle mode
+    // if trackValues is false
+    public BinaryHeapQuickRemoval(int capacity, boolean trackValues) {
         mHeap = new ArrayList<>(capacity);
+        mTrackValues = trackValues;
     }
 
     // Construct a priority ds.queue using heapify in O(n) time, a great explanation can be found at:
     public BinaryHeapQuickRemoval(T[] elements) {
         mSize = mCapacity = elements.length;
-        mHeap = new ArrayList<T>(mCapacity);
+        mHeap = new ArrayList<>(mCapacity);
+        mTrackValues = true;
 
         // Place all element in heap
         for (int i = 0; i < mSize; i++) {
             mapAdd(elements[i], i);
-            mHeap.add(elements[i]);
+            mHeap.add(new Handle<>(elements[i], i));
         }
 
         // Heapify process, O(n)
@@ -61,6 +97,9 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
 
     // Clear everything in the heap, O(n)
     public void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mHeap.get(i).mIndex = -1;
+        }
         for (int i = 0; i < mCapacity; i++) {
             mHeap.set(i, null);
         }
@@ -73,7 +112,7 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         if (isEmpty()) {
             return null;
         }
-        return mHeap.get(0);
+        return mHeap.get(0).mValue;
     }
 
     // Removes the root of the heap, O(log(n))
@@ -81,12 +120,15 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         return removeAt(0);
     }
 
-    // Check is element contained in the heap, O(1)
+    // Check is element contained in the heap, O(1), or O(n) in handle mode
     public boolean contains(T element) {
         // Map lookup to check containment, O(1)
         if (element == null) {
             return false;
         }
+        if (!mTrackValues) {
+            return indexOf(element) != -1;
+        }
         return mMap.containsKey(element);
 
         // Linear check to check containment, O(n)
@@ -98,23 +140,27 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         // return false;
     }
 
-    // Adds an element to the heap, O(log(n))
-    public void add(T element) {
+    // Adds an element to the heap and returns its handle, O(log(n))
+    public Handle<T> add(T element) {
         if (element == null) {
             throw new IllegalArgumentException();
         }
 
+        Handle<T> handle = new Handle<>(element, mSize);
         if (mSize < mCapacity) {
-            mHeap.set(mSize, element);
+            mHeap.set(mSize, handle);
         } else {
-            mHeap.add(element);
+            mHeap.add(handle);
             mCapacity++;
         }
 
-        mapAdd(element, mSize);
+        if (mTrackValues) {
+            mapAdd(element, mSize);
+        }
 
         bubbleUp(mSize);
         mSize++;
+        return handle;
     }
 
     // Perform bottom up node adjustment, O(log(n))
@@ -133,8 +179,8 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         }
     }
 
-    // Perform top down node adjustment, O(log(n))
-    private void bubbleDown(int index) {
+    // Perform top down node adjustment and return the final index, O(log(n))
+    private int bubbleDown(int index) {
         int parent = index;
         while (true) {
             int leftChild = 2 * parent + 1; // Left  child
@@ -155,13 +201,21 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
             swap(smallestChild, parent);
             parent = smallestChild;
         }
+        return parent;
     }
 
-    // Removes a particular element in the heap, O(log(n))
+    // Removes a particular element in the heap, O(log(n)), or O(n) in handle mode
     public boolean remove(T element) {
         if (element == null) {
             return false;
         }
+        if (!mTrackValues) {
+            int index = indexOf(element);
+            if (index != -1) {
+                removeAt(index);
+            }
+            return index != -1;
+        }
 
         // Logarithmic removal with map, O(log(n))
         Integer index = mapGet(element);
@@ -180,6 +234,53 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         // return false;
     }
 
+    // Removes the element of a handle, O(log(n)). Returns false if the handle's
+    // element was already removed.
+    public boolean remove(Handle<T> handle) {
+        if (!ownsHandle(handle)) {
+            return false;
+        }
+        removeAt(handle.mIndex);
+        return true;
+    }
+
+    // Replaces the element of a handle and restores the heap order, O(log(n))
+    public void update(Handle<T> handle, T element) {
+        if (element == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!ownsHandle(handle)) {
+            throw new IllegalArgumentException("Inactive handle");
+        }
+
+        int index = handle.mIndex;
+        if (mTrackValues) {
+            mapRemove(handle.mValue, index);
+            mapAdd(element, index);
+        }
+        handle.mValue = element;
+
+        // If bubble down did not move the element try bubble up
+        if (bubbleDown(index) == index) {
+            bubbleUp(index);
+        }
+    }
+
+    // Checks if the handle's element is in this heap
+    private boolean ownsHandle(Handle<T> handle) {
+        return handle != null && handle.mIndex != -1 && handle.mIndex < mSize && mHeap.get(handle.mIndex) == handle;
+    }
+
+    // Linear search for an element, O(n)
+    private int indexOf(T element) {
+        for (int i = 0; i < mSize; i++) {
+            if (element.equals(mHeap.get(i).mValue)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // Removes a node at particular index, O(log(n))
     private T removeAt(int index) {
         if (isEmpty()) {
@@ -187,43 +288,48 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         }
 
         mSize--;
-        T removedElement = mHeap.get(index);
+        Handle<T> removed = mHeap.get(index);
 
         // Swap the last element with removed element and clear it
         swap(index, mSize);
         mHeap.set(mSize, null);
+        removed.mIndex = -1;
 
-        mapRemove(removedElement, mSize);
+        if (mTrackValues) {
+            mapRemove(removed.mValue, mSize);
+        }
 
         // Check if the last element was removed
         if (index == mSize) {
-            return removedElement;
+            return removed.mValue;
         }
-        T element = mHeap.get(index);
-
-        // Try bubble down element
-        bubbleDown(index);
 
-        // If bubble down did not work try bubble up
-        if (mHeap.get(index).equals(element)) {
+        // Try bubble down element, if it did not move try bubble up
+        if (bubbleDown(index) == index) {
             bubbleUp(index);
         }
-        return removedElement;
+        return removed.mValue;
     }
 
     // Test if the value of node i <= node j
     private boolean less(int i, int j) {
-        T nodeA = mHeap.get(i);
-        T nodeB = mHeap.get(j);
+        T nodeA = mHeap.get(i).mValue;
+        T nodeB = mHeap.get(j).mValue;
         return nodeA.compareTo(nodeB) <= 0;
     }
 
-    // Swap two nodes
+    // Swap two nodes, along with the indices of their handles and map entries
     private void swap(int i, int j) {
-        T nodeA = mHeap.get(i);
-        T nodeB = mHeap.get(j);
+        Handle<T> nodeA = mHeap.get(i);
+        Handle<T> nodeB = mHeap.get(j);
         mHeap.set(i, nodeB);
         mHeap.set(j, nodeA);
+        nodeA.mIndex = j;
+        nodeB.mIndex = i;
+
+        if (mTrackValues && i != j && !nodeA.mValue.equals(nodeB.mValue)) {
+            mapSwap(nodeA.mValue, nodeB.mValue, i, j);
+        }
     }
 
     public boolean isMinHeap() {
@@ -270,6 +376,16 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
         }
     }
 
+    // Exchanges the indices of two values which swapped places, O(log(n))
+    private void mapSwap(T valueA, T valueB, int indexA, int indexB) {
+        TreeSet<Integer> setA = mMap.get(valueA);
+        TreeSet<Integer> setB = mMap.get(valueB);
+        setA.remove(indexA);
+        setB.remove(indexB);
+        setA.add(indexB);
+        setB.add(indexA);
+    }
+
     // Removes the index at a given value, O(log(n))
     private void mapRemove(T value, int index) {
         TreeSet<Integer> set = mMap.get(value);
@@ -292,7 +408,13 @@ public class BinaryHeapQuickRemoval<T extends Comparable<T>> {
 
     @Override
     public String toString() {
-        return mHeap.toString();
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < mSize; i++) {
+            sb.append(mHeap.get(i).mValue + ", ");
+        }
+        sb.append("]");
+        return sb.toString();
     }
 
 }
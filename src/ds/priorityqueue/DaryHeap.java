@@ -0,0 +1,211 @@
+package ds.priorityqueue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// A min heap where every node has d children instead of two. The tree is only
+// log_d(n) deep, so bubbling up does fewer comparisons, and the children of a node
+// are adjacent in the array, so bubbling down reads them from one or two cache
+// lines. Bubbling down compares d children per level, which is why an arity of
+// 4 or 8 usually beats both 2 and very wide nodes.
+public class DaryHeap<T extends Comparable<T>> {
+
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int mArity;
+    private T[] mHeap;
+    private int mSize = 0;   // The number of elements currently inside the heap
+
+    // Construct and initially empty priority queue
+    public DaryHeap() {
+        this(DEFAULT_ARITY, 1);
+    }
+
+    // Construct and initially empty priority queue with d children per node
+    public DaryHeap(int arity) {
+        this(arity, 1);
+    }
+
+    // Construct a priority queue with an initial capacity
+    public DaryHeap(int arity, int capacity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Illegal arity: " + arity);
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        mArity = arity;
+        mHeap = (T[]) new Comparable<?>[Math.max(1, capacity)];
+    }
+
+    // Construct a priority queue using heapify in O(n) time
+    public DaryHeap(int arity, T[] elements) {
+        this(arity, elements.length);
+        for (T element : elements) {
+            if (element == null) {
+                throw new IllegalArgumentException();
+            }
+        }
+        System.arraycopy(elements, 0, mHeap, 0, elements.length);
+        mSize = elements.length;
+
+        // Heapify from the last node which has children, O(n)
+        for (int i = (mSize - 2) / mArity; i >= 0; i--) {
+            bubbleDown(i);
+        }
+    }
+
+    // Priority queue construction, O(nlog(n))
+    public DaryHeap(int arity, Collection<T> elements) {
+        this(arity, elements.size());
+        for (T elem : elements) {
+            add(elem);
+        }
+    }
+
+    // Returns the number of children per node
+    public int arity() {
+        return mArity;
+    }
+
+    // Return the size of the heap
+    public int size() {
+        return mSize;
+    }
+
+    // Returns if the heap contains no elements
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    // Clear everything in the heap, O(n)
+    public void clear() {
+        Arrays.fill(mHeap, 0, mSize, null);
+        mSize = 0;
+    }
+
+    // Returns the element with the lowest priority
+    public T peek() {
+        return mHeap[0];
+    }
+
+    // Removes the root of the heap, O(d * log_d(n))
+    public T poll() {
+        if (isEmpty()) {
+            return null;
+        }
+        return removeAt(0);
+    }
+
+    // Check is element contained in the heap, O(n)
+    public boolean contains(T element) {
+        for (int i = 0; i < mSize; i++) {
+            if (mHeap[i].equals(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds an element to the heap, O(log_d(n))
+    public void add(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException();
+        }
+        if (mSize == mHeap.length) {
+            mHeap = Arrays.copyOf(mHeap, 2 * mHeap.length);
+        }
+        mHeap[mSize] = element;
+        bubbleUp(mSize);
+        mSize++;
+    }
+
+    // Removes a particular element in the heap, O(n)
+    public boolean remove(T element) {
+        if (element == null) {
+            return false;
+        }
+        // Linear removal via search, O(n)
+        for (int i = 0; i < mSize; i++) {
+            if (element.equals(mHeap[i])) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Removes a node at particular index, O(d * log_d(n))
+    private T removeAt(int index) {
+        T removedElement = mHeap[index];
+
+        // Move the last element into the removed one's place and clear it
+        mSize--;
+        mHeap[index] = mHeap[mSize];
+        mHeap[mSize] = null;
+
+        // If bubble down did not move the element try bubble up
+        if (index != mSize && bubbleDown(index) == index) {
+            bubbleUp(index);
+        }
+        return removedElement;
+    }
+
+    // Perform bottom up node adjustment, O(log_d(n))
+    private void bubbleUp(int index) {
+        T element = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) / mArity;
+            if (mHeap[parent].compareTo(element) <= 0) {
+                break;
+            }
+            mHeap[index] = mHeap[parent];
+            index = parent;
+        }
+        mHeap[index] = element;
+    }
+
+    // Perform top down node adjustment and return the final index, O(d * log_d(n))
+    private int bubbleDown(int index) {
+        T element = mHeap[index];
+        while (true) {
+            int firstChild = mArity * index + 1;
+            if (firstChild >= mSize) {
+                break;
+            }
+
+            // Find the smallest of the children
+            int lastChild = Math.min(firstChild + mArity, mSize);
+            int smallestChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (mHeap[child].compareTo(mHeap[smallestChild]) < 0) {
+                    smallestChild = child;
+                }
+            }
+
+            if (element.compareTo(mHeap[smallestChild]) <= 0) {
+                break;
+            }
+            mHeap[index] = mHeap[smallestChild];
+            index = smallestChild;
+        }
+        mHeap[index] = element;
+        return index;
+    }
+
+    // Checks if this heap is a min heap
+    public boolean isMinHeap() {
+        for (int i = 1; i < mSize; i++) {
+            if (mHeap[(i - 1) / mArity].compareTo(mHeap[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(mHeap, mSize));
+    }
+
+}
@@ -0,0 +1,82 @@
+package ds.priorityqueue;
+
+import java.util.Random;
+
+// Sweeps the arity of DaryHeap against the heap size for two mixed workloads.
+// Dijkstra: the heap stays at its size, each step polls the minimum and adds
+// an element a random distance above it, like relaxing an edge. Timers: the heap
+// is filled with deadlines and drained while every poll schedules a later one.
+public class DaryHeapBenchmark {
+
+    private static final int[] ARITIES = {2, 4, 8, 16};
+    private static final int[] SIZES = {1 << 10, 1 << 14, 1 << 18, 1 << 20};
+    private static final int OPERATIONS = 1 << 21;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        for (String workload : new String[]{"dijkstra", "timers"}) {
+            System.out.println(workload + " (ns/operation)");
+            System.out.printf("%-10s", "size");
+            for (int arity : ARITIES) {
+                System.out.printf("%10s", "d=" + arity);
+            }
+            System.out.println();
+
+            for (int size : SIZES) {
+                System.out.printf("%-10d", size);
+                for (int arity : ARITIES) {
+                    double best = Double.MAX_VALUE;
+                    for (int round = 0; round < ROUNDS; round++) {
+                        best = Math.min(best, workload.equals("dijkstra") ? dijkstra(arity, size) : timers(arity, size));
+                    }
+                    System.out.printf("%10.1f", best);
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    // Polls the minimum and adds a larger element, keeping the size constant
+    private static double dijkstra(int arity, int size) {
+        Random random = new Random(42);
+        Long[] elements = new Long[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = (long) random.nextInt(1 << 20);
+        }
+        DaryHeap<Long> heap = new DaryHeap<>(arity, elements);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long distance = heap.poll();
+            heap.add(distance + random.nextInt(1 << 10));
+        }
+        return (double) (System.nanoTime() - start) / (2 * OPERATIONS);
+    }
+
+    // Fills the heap with deadlines, then polls them all while each poll
+    // reschedules half of the timers
+    private static double timers(int arity, int size) {
+        Random random = new Random(42);
+        DaryHeap<Long> heap = new DaryHeap<>(arity);
+        long operations = 0;
+
+        long start = System.nanoTime();
+        while (operations < OPERATIONS) {
+            long now = 0;
+            for (int i = 0; i < size; i++) {
+                heap.add(now + random.nextInt(1 << 16));
+            }
+            operations += size;
+            while (!heap.isEmpty()) {
+                now = heap.poll();
+                if ((now & 1) == 0 && random.nextBoolean()) {
+                    heap.add(now + 1 + random.nextInt(1 << 16));
+                    operations++;
+                }
+                operations++;
+            }
+        }
+        return (double) (System.nanoTime() - start) / operations;
+    }
+
+}
@@ -0,0 +1,248 @@
+package ds.priorityqueue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// A min binary heap of values attached to dense key indices 0 .. maxSize - 1, as
+// used by graph algorithms keyed by vertex id. Two int arrays link keys and heap
+// positions: mPositionMap[ki] is the heap position of key ki and mInverseMap[pos]
+// is the key at a heap position. Looking up a key is a single array read, so
+// contains() is O(1) and updating, decreasing, increasing or deleting the value
+// of a key is O(log(n)), none of them allocating.
+public class IndexedBinaryHeap<T extends Comparable<T>> {
+
+    private final int mMaxSize;
+    private int mSize = 0;   // The number of elements currently inside the heap
+
+    // The heap position of each key index, -1 for keys not in the heap
+    private final int[] mPositionMap;
+
+    // The key index at each heap position
+    private final int[] mInverseMap;
+
+    // The value of each key index
+    private final T[] mValues;
+
+    // Construct an empty heap accepting the key indices 0 .. maxSize - 1
+    public IndexedBinaryHeap(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Illegal maxSize: " + maxSize);
+        }
+        mMaxSize = maxSize;
+        mPositionMap = new int[maxSize];
+        mInverseMap = new int[maxSize];
+        mValues = (T[]) new Comparable<?>[maxSize];
+        Arrays.fill(mPositionMap, -1);
+    }
+
+    // Return the size of the heap
+    public int size() {
+        return mSize;
+    }
+
+    // Returns if the heap contains no elements
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    // Clear everything in the heap, O(n)
+    public void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mPositionMap[mInverseMap[i]] = -1;
+            mValues[mInverseMap[i]] = null;
+        }
+        mSize = 0;
+    }
+
+    // Check is the key index contained in the heap, O(1)
+    public boolean contains(int ki) {
+        checkKeyIndex(ki);
+        return mPositionMap[ki] != -1;
+    }
+
+    // Returns the key index with the smallest value
+    public int peekMinKeyIndex() {
+        checkNotEmpty();
+        return mInverseMap[0];
+    }
+
+    // Removes the key index with the smallest value and returns it, O(log(n))
+    public int pollMinKeyIndex() {
+        int ki = peekMinKeyIndex();
+        delete(ki);
+        return ki;
+    }
+
+    // Returns the smallest value
+    public T peekMinValue() {
+        checkNotEmpty();
+        return mValues[mInverseMap[0]];
+    }
+
+    // Removes the smallest value and returns it, O(log(n))
+    public T pollMinValue() {
+        return delete(peekMinKeyIndex());
+    }
+
+    // Adds a key index with its value, O(log(n))
+    public void insert(int ki, T value) {
+        if (contains(ki)) {
+            throw new IllegalArgumentException("Index already exists: " + ki);
+        }
+        checkValue(value);
+        mValues[ki] = value;
+        mPositionMap[ki] = mSize;
+        mInverseMap[mSize] = ki;
+        mSize++;
+        bubbleUp(mSize - 1);
+    }
+
+    // Returns the value of a key index
+    public T valueOf(int ki) {
+        checkContains(ki);
+        return mValues[ki];
+    }
+
+    // Removes a key index and returns its value, O(log(n))
+    public T delete(int ki) {
+        checkContains(ki);
+        int position = mPositionMap[ki];
+        T value = mValues[ki];
+
+        // Move the last key into the deleted key's position
+        mSize--;
+        move(mInverseMap[mSize], position);
+        mValues[ki] = null;
+        mPositionMap[ki] = -1;
+
+        // If bubble down did not move the key try bubble up
+        if (position != mSize && bubbleDown(position) == position) {
+            bubbleUp(position);
+        }
+        return value;
+    }
+
+    // Replaces the value of a key index and returns the old value, O(log(n))
+    public T update(int ki, T value) {
+        checkContains(ki);
+        checkValue(value);
+        int position = mPositionMap[ki];
+        T oldValue = mValues[ki];
+        mValues[ki] = value;
+        if (bubbleDown(position) == position) {
+            bubbleUp(position);
+        }
+        return oldValue;
+    }
+
+    // Lowers the value of a key index, values which are not smaller are ignored, O(log(n))
+    public void decreaseKey(int ki, T value) {
+        checkContains(ki);
+        checkValue(value);
+        if (value.compareTo(mValues[ki]) < 0) {
+            mValues[ki] = value;
+            bubbleUp(mPositionMap[ki]);
+        }
+    }
+
+    // Raises the value of a key index, values which are not larger are ignored, O(log(n))
+    public void increaseKey(int ki, T value) {
+        checkContains(ki);
+        checkValue(value);
+        if (mValues[ki].compareTo(value) < 0) {
+            mValues[ki] = value;
+            bubbleDown(mPositionMap[ki]);
+        }
+    }
+
+    // Perform bottom up node adjustment, O(log(n))
+    private void bubbleUp(int position) {
+        int ki = mInverseMap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (mValues[mInverseMap[parent]].compareTo(mValues[ki]) <= 0) {
+                break;
+            }
+            move(mInverseMap[parent], position);
+            position = parent;
+        }
+        move(ki, position);
+    }
+
+    // Perform top down node adjustment and return the final position, O(log(n))
+    private int bubbleDown(int position) {
+        int ki = mInverseMap[position];
+        while (true) {
+            int smallestChild = 2 * position + 1;
+            if (smallestChild >= mSize) {
+                break;
+            }
+
+            // Check which of the two children is smaller
+            if (smallestChild + 1 < mSize
+                    && mValues[mInverseMap[smallestChild + 1]].compareTo(mValues[mInverseMap[smallestChild]]) < 0) {
+                smallestChild++;
+            }
+            if (mValues[ki].compareTo(mValues[mInverseMap[smallestChild]]) <= 0) {
+                break;
+            }
+            move(mInverseMap[smallestChild], position);
+            position = smallestChild;
+        }
+        move(ki, position);
+        return position;
+    }
+
+    // Places a key index at a heap position
+    private void move(int ki, int position) {
+        mInverseMap[position] = ki;
+        mPositionMap[ki] = position;
+    }
+
+    // Checks if this heap is a min heap
+    public boolean isMinHeap() {
+        for (int i = 1; i < mSize; i++) {
+            if (mValues[mInverseMap[(i - 1) / 2]].compareTo(mValues[mInverseMap[i]]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkKeyIndex(int ki) {
+        if (ki < 0 || ki >= mMaxSize) {
+            throw new IllegalArgumentException("Key index out of bounds: " + ki);
+        }
+    }
+
+    private void checkContains(int ki) {
+        if (!contains(ki)) {
+            throw new NoSuchElementException("Index does not exist: " + ki);
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new RuntimeException("Empty heap");
+        }
+    }
+
+    private static void checkValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null value");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("[");
+        for (int i = 0; i < mSize; i++)
+            sb.append(mInverseMap[i] + " => " + mValues[mInverseMap[i]] + ", ");
+        sb.append("]");
+
+        return sb.toString();
+    }
+
+}
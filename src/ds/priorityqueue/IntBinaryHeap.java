@@ -0,0 +1,171 @@
+package ds.priorityqueue;
+
+import java.util.Arrays;
+
+// A min binary heap of ints stored in a plain int array, so no element is ever
+// boxed. Instead of swapping at every level, bubbling up and down moves the
+// element into a hole, one array write per level.
+public class IntBinaryHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] mHeap;
+    private int mSize = 0;   // The number of elements currently inside the heap
+
+    // Construct and initially empty priority queue
+    public IntBinaryHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Construct a priority queue with an initial capacity
+    public IntBinaryHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        mHeap = new int[Math.max(1, capacity)];
+    }
+
+    // Construct a priority queue using heapify in O(n) time
+    public IntBinaryHeap(int[] elements) {
+        mHeap = Arrays.copyOf(elements, Math.max(1, elements.length));
+        mSize = elements.length;
+        for (int i = (mSize / 2) - 1; i >= 0; i--) {
+            bubbleDown(i);
+        }
+    }
+
+    // Return the size of the heap
+    public int size() {
+        return mSize;
+    }
+
+    // Returns if the heap contains no elements
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    // Clear everything in the heap, O(1)
+    public void clear() {
+        mSize = 0;
+    }
+
+    // Returns the smallest element
+    public int peek() {
+        if (isEmpty()) {
+            throw new RuntimeException("Empty heap");
+        }
+        return mHeap[0];
+    }
+
+    // Removes the root of the heap, O(log(n))
+    public int poll() {
+        if (isEmpty()) {
+            throw new RuntimeException("Empty heap");
+        }
+        return removeAt(0);
+    }
+
+    // Check is element contained in the heap, O(n)
+    public boolean contains(int element) {
+        return indexOf(element) != -1;
+    }
+
+    // Adds an element to the heap, O(log(n))
+    public void add(int element) {
+        if (mSize == mHeap.length) {
+            mHeap = Arrays.copyOf(mHeap, 2 * mHeap.length);
+        }
+        mHeap[mSize] = element;
+        bubbleUp(mSize);
+        mSize++;
+    }
+
+    // Removes a particular element in the heap, O(n)
+    public boolean remove(int element) {
+        int index = indexOf(element);
+        if (index == -1) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    private int indexOf(int element) {
+        for (int i = 0; i < mSize; i++) {
+            if (mHeap[i] == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Removes a node at particular index, O(log(n))
+    private int removeAt(int index) {
+        int removedElement = mHeap[index];
+
+        // Move the last element into the removed one's place
+        mSize--;
+        if (index != mSize) {
+            mHeap[index] = mHeap[mSize];
+
+            // If bubble down did not move the element try bubble up
+            if (bubbleDown(index) == index) {
+                bubbleUp(index);
+            }
+        }
+        return removedElement;
+    }
+
+    // Perform bottom up node adjustment, O(log(n))
+    private void bubbleUp(int index) {
+        int element = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (mHeap[parent] <= element) {
+                break;
+            }
+            mHeap[index] = mHeap[parent];
+            index = parent;
+        }
+        mHeap[index] = element;
+    }
+
+    // Perform top down node adjustment and return the final index, O(log(n))
+    private int bubbleDown(int index) {
+        int element = mHeap[index];
+        while (true) {
+            int smallestChild = 2 * index + 1;
+            if (smallestChild >= mSize) {
+                break;
+            }
+
+            // Check which of the two children is smaller
+            if (smallestChild + 1 < mSize && mHeap[smallestChild + 1] < mHeap[smallestChild]) {
+                smallestChild++;
+            }
+            if (element <= mHeap[smallestChild]) {
+                break;
+            }
+            mHeap[index] = mHeap[smallestChild];
+            index = smallestChild;
+        }
+        mHeap[index] = element;
+        return index;
+    }
+
+    // Checks if this heap is a min heap
+    public boolean isMinHeap() {
+        for (int i = 1; i < mSize; i++) {
+            if (mHeap[(i - 1) / 2] > mHeap[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(mHeap, mSize));
+    }
+
+}
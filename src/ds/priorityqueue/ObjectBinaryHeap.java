@@ -0,0 +1,195 @@
+package ds.priorityqueue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// A min binary heap ordered by a Comparator, so elements need not implement
+// Comparable. Unlike BinaryHeap the elements are kept in a plain array instead
+// of going through List.get() and List.set() on every comparison. Instead of
+// swapping at every level, bubbling up and down moves the element into a hole,
+// one array write per level.
+public class ObjectBinaryHeap<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Comparator<? super T> mComparator;
+    private T[] mHeap;
+    private int mSize = 0;   // The number of elements currently inside the heap
+
+    // Construct and initially empty priority queue
+    public ObjectBinaryHeap(Comparator<? super T> comparator) {
+        this(DEFAULT_CAPACITY, comparator);
+    }
+
+    // Construct a priority queue with an initial capacity
+    public ObjectBinaryHeap(int capacity, Comparator<? super T> comparator) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (comparator == null) {
+            throw new IllegalArgumentException("Null comparator");
+        }
+        mComparator = comparator;
+        mHeap = (T[]) new Object[Math.max(1, capacity)];
+    }
+
+    // Construct a priority queue using heapify in O(n) time
+    public ObjectBinaryHeap(T[] elements, Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("Null comparator");
+        }
+        mComparator = comparator;
+        mHeap = (T[]) Arrays.copyOf(elements, Math.max(1, elements.length), Object[].class);
+        mSize = elements.length;
+        for (int i = 0; i < mSize; i++) {
+            if (mHeap[i] == null) {
+                throw new IllegalArgumentException("Null element");
+            }
+        }
+        for (int i = (mSize / 2) - 1; i >= 0; i--) {
+            bubbleDown(i);
+        }
+    }
+
+    // Return the size of the heap
+    public int size() {
+        return mSize;
+    }
+
+    // Returns if the heap contains no elements
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    // Clear everything in the heap, O(n)
+    public void clear() {
+        Arrays.fill(mHeap, 0, mSize, null);
+        mSize = 0;
+    }
+
+    // Returns the smallest element, or null if the heap is empty
+    public T peek() {
+        return mHeap[0];
+    }
+
+    // Removes the root of the heap, O(log(n)). Returns null if the heap is empty
+    public T poll() {
+        if (isEmpty()) {
+            return null;
+        }
+        return removeAt(0);
+    }
+
+    // Check is element contained in the heap, O(n)
+    public boolean contains(T element) {
+        return indexOf(element) != -1;
+    }
+
+    // Adds an element to the heap, O(log(n))
+    public void add(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Null element");
+        }
+        if (mSize == mHeap.length) {
+            mHeap = Arrays.copyOf(mHeap, 2 * mHeap.length);
+        }
+        mHeap[mSize] = element;
+        bubbleUp(mSize);
+        mSize++;
+    }
+
+    // Removes a particular element in the heap, O(n)
+    public boolean remove(T element) {
+        int index = indexOf(element);
+        if (index == -1) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    private int indexOf(T element) {
+        if (element == null) {
+            return -1;
+        }
+        for (int i = 0; i < mSize; i++) {
+            if (element.equals(mHeap[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Removes a node at particular index, O(log(n))
+    private T removeAt(int index) {
+        T removedElement = mHeap[index];
+
+        // Move the last element into the removed one's place
+        mSize--;
+        if (index != mSize) {
+            mHeap[index] = mHeap[mSize];
+            mHeap[mSize] = null;
+
+            // If bubble down did not move the element try bubble up
+            if (bubbleDown(index) == index) {
+                bubbleUp(index);
+            }
+        } else {
+            mHeap[mSize] = null;
+        }
+        return removedElement;
+    }
+
+    // Perform bottom up node adjustment, O(log(n))
+    private void bubbleUp(int index) {
+        T element = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (mComparator.compare(mHeap[parent], element) <= 0) {
+                break;
+            }
+            mHeap[index] = mHeap[parent];
+            index = parent;
+        }
+        mHeap[index] = element;
+    }
+
+    // Perform top down node adjustment and return the final index, O(log(n))
+    private int bubbleDown(int index) {
+        T element = mHeap[index];
+        while (true) {
+            int smallestChild = 2 * index + 1;
+            if (smallestChild >= mSize) {
+                break;
+            }
+
+            // Check which of the two children is smaller
+            if (smallestChild + 1 < mSize && mComparator.compare(mHeap[smallestChild + 1], mHeap[smallestChild]) < 0) {
+                smallestChild++;
+            }
+            if (mComparator.compare(element, mHeap[smallestChild]) <= 0) {
+                break;
+            }
+            mHeap[index] = mHeap[smallestChild];
+            index = smallestChild;
+        }
+        mHeap[index] = element;
+        return index;
+    }
+
+    // Checks if this heap is a min heap
+    public boolean isMinHeap() {
+        for (int i = 1; i < mSize; i++) {
+            if (mComparator.compare(mHeap[(i - 1) / 2], mHeap[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(mHeap, mSize));
+    }
+
+}
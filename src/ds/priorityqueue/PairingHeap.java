@@ -0,0 +1,257 @@
+package ds.priorityqueue;
+
+// A min pairing heap: a tree where every node is smaller than its children, kept
+// as a leftmost child and a list of siblings. Adding an element and melding two
+// heaps only link two roots, O(1). decreaseKey() cuts the node's subtree and links
+// it with the root, amortized O(1) in practice. poll() pays for the laziness by
+// pairing up the root's children left to right and then merging the pairs right
+// to left, amortized O(log(n)).
+//
+// Every node refers to the owner of its heap, so decreaseKey() and remove() can
+// reject nodes which were removed, belong to another heap or were cleared.
+public class PairingHeap<T extends Comparable<T>> {
+
+    // A heap node, returned by add() as a handle for decreaseKey() and remove()
+    public static final class Node<T> {
+
+        private T mValue;
+        private Node<T> mChild;
+        private Node<T> mNext;
+
+        // The previous sibling, or the parent for a leftmost child
+        private Node<T> mPrev;
+
+        // The owner of the heap holding the node, null once the node is removed
+        private Owner mOwner;
+
+        private Node(T value, Owner owner) {
+            mValue = value;
+            mOwner = owner;
+        }
+
+        public T value() {
+            return mValue;
+        }
+
+        // Returns if the element is still in a heap
+        public boolean isActive() {
+            return mOwner != null && !(mOwner = mOwner.resolve()).mRetired;
+        }
+
+    }
+
+    // Identifies a heap without touching its nodes. meld() forwards the owner of
+    // the emptied heap to the receiving one and clear() retires the owner, so
+    // both stay O(1) while nodes still find their current heap.
+    private static final class Owner {
+
+        private Owner mForward;
+        private boolean mRetired;
+
+        // Follows the forwards to the current owner, halving the path on the way
+        private Owner resolve() {
+            Owner owner = this;
+            while (owner.mForward != null) {
+                if (owner.mForward.mForward != null) {
+                    owner.mForward = owner.mForward.mForward;
+                }
+                owner = owner.mForward;
+            }
+            return owner;
+        }
+
+    }
+
+    private Owner mOwner = new Owner();
+    private Node<T> mRoot;
+    private int mSize = 0;   // The number of elements currently inside the heap
+
+    // Return the size of the heap
+    public int size() {
+        return mSize;
+    }
+
+    // Returns if the heap contains no elements
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    // Clear everything in the heap, O(1)
+    public void clear() {
+        mOwner.mRetired = true;
+        mOwner = new Owner();
+        mRoot = null;
+        mSize = 0;
+    }
+
+    // Returns the element with the lowest priority
+    public T peek() {
+        return mRoot == null ? null : mRoot.mValue;
+    }
+
+    // Adds an element to the heap and returns its node, O(1)
+    public Node<T> add(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException();
+        }
+        Node<T> node = new Node<>(element, mOwner);
+        mRoot = link(mRoot, node);
+        mSize++;
+        return node;
+    }
+
+    // Moves all elements of another heap into this one, leaving the other heap
+    // empty. Nodes of the other heap remain valid handles into this heap, O(1)
+    public void meld(PairingHeap<T> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Melding a heap with itself");
+        }
+        mRoot = link(mRoot, other.mRoot);
+        mSize += other.mSize;
+        other.mOwner.mForward = mOwner;
+        other.mOwner = new Owner();
+        other.mRoot = null;
+        other.mSize = 0;
+    }
+
+    // Removes the root of the heap, amortized O(log(n))
+    public T poll() {
+        if (isEmpty()) {
+            return null;
+        }
+        Node<T> root = mRoot;
+        mRoot = combineChildren(root);
+        mSize--;
+        root.mChild = null;
+        root.mOwner = null;
+        return root.mValue;
+    }
+
+    // Lowers the value of a node, O(1)
+    public void decreaseKey(Node<T> node, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        checkNode(node);
+        if (value.compareTo(node.mValue) > 0) {
+            throw new IllegalArgumentException("New value is larger than the current value");
+        }
+        node.mValue = value;
+        if (node != mRoot) {
+            cut(node);
+            mRoot = link(mRoot, node);
+        }
+    }
+
+    // Removes the element of a node, amortized O(log(n))
+    public T remove(Node<T> node) {
+        checkNode(node);
+        if (node == mRoot) {
+            return poll();
+        }
+        cut(node);
+        mRoot = link(mRoot, combineChildren(node));
+        node.mChild = null;
+        node.mOwner = null;
+        mSize--;
+        return node.mValue;
+    }
+
+    // Checks if the node's element is in this heap
+    private void checkNode(Node<T> node) {
+        if (node == null || node.mOwner == null || (node.mOwner = node.mOwner.resolve()) != mOwner) {
+            throw new IllegalArgumentException("Inactive node");
+        }
+    }
+
+    // Detaches a node and its subtree from its parent's list of children
+    private void cut(Node<T> node) {
+        if (node.mPrev.mChild == node) {
+            node.mPrev.mChild = node.mNext;
+        } else {
+            node.mPrev.mNext = node.mNext;
+        }
+        if (node.mNext != null) {
+            node.mNext.mPrev = node.mPrev;
+        }
+        node.mPrev = node.mNext = null;
+    }
+
+    // Makes the larger of two roots the leftmost child of the smaller one
+    private Node<T> link(Node<T> a, Node<T> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (b.mValue.compareTo(a.mValue) < 0) {
+            Node<T> swap = a;
+            a = b;
+            b = swap;
+        }
+
+        b.mPrev = a;
+        b.mNext = a.mChild;
+        if (a.mChild != null) {
+            a.mChild.mPrev = b;
+        }
+        a.mChild = b;
+        a.mNext = a.mPrev = null;
+        return a;
+    }
+
+    // Merges the children of a node into one tree with the two pass method
+    private Node<T> combineChildren(Node<T> node) {
+        Node<T> child = node.mChild;
+        if (child == null) {
+            return null;
+        }
+
+        // First pass, link the children in pairs from left to right. The pairs
+        // are chained through mPrev with the last pair at the head.
+        Node<T> pairs = null;
+        while (child != null) {
+            Node<T> second = child.mNext;
+            Node<T> next = second == null ? null : second.mNext;
+            child.mNext = child.mPrev = null;
+            if (second != null) {
+                second.mNext = second.mPrev = null;
+            }
+            Node<T> pair = link(child, second);
+            pair.mPrev = pairs;
+            pairs = pair;
+            child = next;
+        }
+
+        // Second pass, merge the pairs from right to left
+        Node<T> result = pairs;
+        pairs = pairs.mPrev;
+        result.mPrev = null;
+        while (pairs != null) {
+            Node<T> previous = pairs.mPrev;
+            pairs.mPrev = null;
+            result = link(pairs, result);
+            pairs = previous;
+        }
+        return result;
+    }
+
+    // Checks if every node is smaller than its children and the size matches
+    public boolean isMinHeap() {
+        return mRoot == null ? mSize == 0 : mRoot.mPrev == null && count(mRoot) == mSize;
+    }
+
+    // Counts the nodes of a subtree, -1 if a child is smaller than its parent
+    private int count(Node<T> node) {
+        int count = 1;
+        for (Node<T> child = node.mChild; child != null; child = child.mNext) {
+            if (child.mValue.compareTo(node.mValue) < 0) {
+                return -1;
+            }
+            int childCount = count(child);
+            if (childCount == -1) {
+                return -1;
+            }
+            count += childCount;
+        }
+        return count;
+    }
+
+}
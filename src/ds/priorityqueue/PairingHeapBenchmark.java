@@ -0,0 +1,136 @@
+package ds.priorityqueue;
+
+import java.util.Random;
+
+// Compares PairingHeap against BinaryHeap for three operation mixes. Insert heavy:
+// three adds per poll. Poll heavy: the heap is filled and then drained. Meld heavy:
+// many small heaps, as built by worker partitions, are merged into one which is
+// then partly drained. BinaryHeap has no meld, so it re-adds every element.
+public class PairingHeapBenchmark {
+
+    private static final int ELEMENTS = 1 << 20;
+    private static final int PARTITION_SIZE = 64;
+    private static final int ROUNDS = 3;
+
+    // The operations shared by both heaps
+    private interface Heap {
+        void add(Integer element);
+
+        Integer poll();
+
+        boolean isEmpty();
+
+        // Moves all elements of another heap of the same kind into this one
+        void meld(Heap other);
+    }
+
+    private static class Binary implements Heap {
+
+        private final BinaryHeap<Integer> mHeap = new BinaryHeap<>();
+
+        @Override
+        public void add(Integer element) {
+            mHeap.add(element);
+        }
+
+        @Override
+        public Integer poll() {
+            return mHeap.poll();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mHeap.isEmpty();
+        }
+
+        @Override
+        public void meld(Heap other) {
+            BinaryHeap<Integer> heap = ((Binary) other).mHeap;
+            while (!heap.isEmpty()) {
+                mHeap.add(heap.poll());
+            }
+        }
+
+    }
+
+    private static class Pairing implements Heap {
+
+        private final PairingHeap<Integer> mHeap = new PairingHeap<>();
+
+        @Override
+        public void add(Integer element) {
+            mHeap.add(element);
+        }
+
+        @Override
+        public Integer poll() {
+            return mHeap.poll();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mHeap.isEmpty();
+        }
+
+        @Override
+        public void meld(Heap other) {
+            mHeap.meld(((Pairing) other).mHeap);
+        }
+
+    }
+
+    private interface HeapFactory {
+        Heap create();
+    }
+
+    public static void main(String[] args) {
+        Integer[] elements = new Integer[ELEMENTS];
+        Random random = new Random(42);
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements[i] = random.nextInt();
+        }
+
+        System.out.printf("%-14s %16s %16s%n", "mix (ms)", "BinaryHeap", "PairingHeap");
+        for (String mix : new String[]{"insert heavy", "poll heavy", "meld heavy"}) {
+            long binary = Long.MAX_VALUE, pairing = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                binary = Math.min(binary, run(mix, Binary::new, elements));
+                pairing = Math.min(pairing, run(mix, Pairing::new, elements));
+            }
+            System.out.printf("%-14s %16.1f %16.1f%n", mix, binary / 1e6, pairing / 1e6);
+        }
+    }
+
+    // Runs a mix and returns the time it took in nanoseconds
+    private static long run(String mix, HeapFactory factory, Integer[] elements) {
+        long start = System.nanoTime();
+        Heap heap = factory.create();
+
+        if (mix.equals("insert heavy")) {
+            for (int i = 0; i < elements.length; i++) {
+                heap.add(elements[i]);
+                if (i % 3 == 2) heap.poll();
+            }
+        } else if (mix.equals("poll heavy")) {
+            for (Integer element : elements) {
+                heap.add(element);
+            }
+            while (!heap.isEmpty()) {
+                heap.poll();
+            }
+        } else {
+            for (int i = 0; i < elements.length; i += PARTITION_SIZE) {
+                Heap partition = factory.create();
+                for (int j = i; j < i + PARTITION_SIZE; j++) {
+                    partition.add(elements[j]);
+                }
+                heap.meld(partition);
+            }
+            for (int i = 0; i < PARTITION_SIZE; i++) {
+                heap.poll();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+}
@@ -5,6 +5,8 @@ import ds.tree.TreePrinter;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Stack;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 public class AVLTree<T extends Comparable<T>> implements Iterable<T> {
 
@@ -182,6 +184,53 @@ public class AVLTree<T extends Comparable<T>> implements Iterable<T> {
         }
     }
 
+    // Returns the element in the ds.tree equal to the given one, or null if
+    // it does not exist. Useful when the element only holds a search key.
+    public T find(T element) {
+        Node node = mRoot;
+        while (node != null) {
+            int compare = element.compareTo(node.mData);
+            if (compare < 0) {
+                node = node.mLeft;
+            } else if (compare > 0) {
+                node = node.mRight;
+            } else {
+                return node.mData;
+            }
+        }
+        return null;
+    }
+
+    // Returns an element matching the predicate among the elements the order function
+    // maps to zero, or null if there is none. Like compareTo() the order function tells
+    // whether the searched elements come before (negative) or after (positive) an
+    // element, so only the subtrees which may hold them are visited, O(log(n) + k).
+    public T find(ToIntFunction<? super T> order, Predicate<? super T> predicate) {
+        return find(mRoot, order, predicate);
+    }
+
+    private T find(Node node, ToIntFunction<? super T> order, Predicate<? super T> predicate) {
+        while (node != null) {
+            int compare = order.applyAsInt(node.mData);
+            if (compare < 0) {
+                node = node.mLeft;
+            } else if (compare > 0) {
+                node = node.mRight;
+            } else {
+                // Both subtrees may hold searched elements, recurse into one of them
+                if (predicate.test(node.mData)) {
+                    return node.mData;
+                }
+                T found = find(node.mLeft, order, predicate);
+                if (found != null) {
+                    return found;
+                }
+                node = node.mRight;
+            }
+        }
+        return null;
+    }
+
     // Update a node's height and balance factor.
     private void update(Node node) {
         int leftNodeHeight = (node.mLeft == null) ? -1 : node.mLeft.mHeight;